@@ -0,0 +1,79 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.PermissionCheckService;
+import com.dawnmoon.charon.common.security.PermissionRegistry;
+import com.dawnmoon.charon.common.security.PermissionSyncService;
+import com.dawnmoon.charon.common.security.RbacGraph;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.TokenStore;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试的公共数据
+ * 不启动 Spring 容器，Redis / 数据库相关依赖用 Mockito 替代，只测量内存中的热点路径
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 生成符合格式的权限编码：MODULE_A:ACTION_A、MODULE_A:ACTION_B ...，每个模块 10 个操作
+     */
+    static List<String> permissionCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add("MODULE_" + letters(i / 10) + ":ACTION_" + letters(i % 10));
+        }
+        return codes;
+    }
+
+    /**
+     * 非负整数转为大写字母序号：0 → A，25 → Z，26 → BA
+     */
+    private static String letters(int value) {
+        StringBuilder builder = new StringBuilder();
+        do {
+            builder.insert(0, (char) ('A' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return builder.toString();
+    }
+
+    /**
+     * 包含给定编码的权限注册表
+     */
+    static PermissionRegistry permissionRegistry(List<String> codes) {
+        PermissionMapper permissionMapper = Mockito.mock(PermissionMapper.class);
+        Mockito.when(permissionMapper.selectAllPermissionCodes()).thenReturn(codes);
+        PermissionRegistry permissionRegistry = new PermissionRegistry(permissionMapper);
+        permissionRegistry.refresh();
+        return permissionRegistry;
+    }
+
+    /**
+     * 使用给定注册表的 PermissionCheckService
+     * 角色权限集填充为空操作，UserPrincipal 中的权限由调用方直接设置
+     */
+    static PermissionCheckService permissionCheckService(PermissionRegistry permissionRegistry) {
+        return new PermissionCheckService(
+                Mockito.mock(TokenStore.class),
+                permissionRegistry,
+                Mockito.mock(PermissionSyncService.class),
+                Mockito.mock(RbacGraph.class),
+                Mockito.mock(RoleGrantStore.class));
+    }
+
+    /**
+     * 拥有给定权限的已认证用户
+     */
+    static UserPrincipal principal(List<String> permissions) {
+        long now = System.currentTimeMillis();
+        return new UserPrincipal(10001L, "benchmark", List.of("ADMIN"), permissions, now, now + 86_400_000L);
+    }
+}
@@ -0,0 +1,151 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.PasswordHashService;
+import com.dawnmoon.charon.util.CryptoUtil;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+
+import javax.crypto.Cipher;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加密基准：登录使用的 PasswordHashService 密码校验（BCrypt / Argon2）、
+ * ECIES 小数据（每次创建 Cipher 与复用 Cipher 对比）、4MB 数据的 ECIES 与混合加密对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+
+    private static final String PASSWORD = "qut@123456";
+
+    private KeyPair keyPair;
+    private CryptoUtil cryptoUtil;
+    private byte[] small;
+    private byte[] smallEncrypted;
+    private byte[] large;
+    private byte[] largeEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EC", "BC");
+        keyGen.initialize(256);
+        keyPair = keyGen.generateKeyPair();
+        cryptoUtil = new CryptoUtil();
+        ReflectionTestUtils.setField(cryptoUtil, "eccPublicKeyStr",
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(cryptoUtil, "eccPrivateKeyStr",
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        cryptoUtil.init();
+
+        small = new byte[64];
+        large = new byte[4 * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(small);
+        ThreadLocalRandom.current().nextBytes(large);
+        smallEncrypted = cryptoUtil.eccEncrypt(small);
+        largeEncrypted = cryptoUtil.hybridEncrypt(large);
+    }
+
+    /**
+     * 密码哈希服务，参数与 application.yaml 的默认配置一致
+     */
+    @State(Scope.Benchmark)
+    public static class PasswordHashState {
+
+        /**
+         * BCrypt 强度，0 表示与默认配置一样按目标耗时（250ms）校准
+         */
+        @Param({"0"})
+        private int bcryptStrength;
+
+        private PasswordHashService bcrypt;
+        private PasswordHashService argon2;
+        private String bcryptHash;
+        private String argon2Hash;
+
+        @Setup
+        public void setUp() {
+            bcrypt = new PasswordHashService("bcrypt", bcryptStrength, 250, 10, 14, 19456, 2, 1);
+            argon2 = new PasswordHashService("argon2", 10, 250, 10, 14, 19456, 2, 1);
+            bcryptHash = bcrypt.encode(PASSWORD);
+            argon2Hash = argon2.encode(PASSWORD);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptMatches(PasswordHashState state) {
+        return state.bcrypt.matches(PASSWORD, state.bcryptHash);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean argon2Matches(PasswordHashState state) {
+        return state.argon2.matches(PASSWORD, state.argon2Hash);
+    }
+
+    @Benchmark
+    public byte[] eciesEncrypt64B() throws Exception {
+        return cryptoUtil.eccEncrypt(small);
+    }
+
+    /**
+     * 优化前的实现：每次调用都查找 Provider 并创建 Cipher
+     */
+    @Benchmark
+    public byte[] eciesEncrypt64BPerCall() throws Exception {
+        Cipher cipher = Cipher.getInstance("ECIES", "BC");
+        cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        return cipher.doFinal(small);
+    }
+
+    @Benchmark
+    public byte[] eciesDecrypt64B() throws Exception {
+        return cryptoUtil.eccDecrypt(smallEncrypted);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] eciesRoundTrip4MB() throws Exception {
+        return cryptoUtil.eccDecrypt(cryptoUtil.eccEncrypt(large));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] hybridRoundTrip4MB() throws Exception {
+        return cryptoUtil.hybridDecrypt(cryptoUtil.hybridEncrypt(large));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] hybridEncrypt4MB() throws Exception {
+        return cryptoUtil.hybridEncrypt(large);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] hybridDecrypt4MB() throws Exception {
+        return cryptoUtil.hybridDecrypt(largeEncrypted);
+    }
+}
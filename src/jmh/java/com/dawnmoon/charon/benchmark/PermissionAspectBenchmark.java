@@ -0,0 +1,106 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.LogicType;
+import com.dawnmoon.charon.common.security.PermissionAspect;
+import com.dawnmoon.charon.common.security.PermissionCheckService;
+import com.dawnmoon.charon.common.security.PermissionRegistry;
+import com.dawnmoon.charon.common.security.RequirePermission;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PermissionAspect 开销基准
+ * 对比直接调用、无注解方法经过代理、单个 / 多个 @RequirePermission 注解经过切面的耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionAspectBenchmark {
+
+    /**
+     * 被代理的目标，模拟 Controller 方法
+     */
+    public static class Target {
+
+        public long unprotected(long value) {
+            return value + 1;
+        }
+
+        @RequirePermission("MODULE_A:ACTION_A")
+        public long single(long value) {
+            return value + 1;
+        }
+
+        @RequirePermission(value = {"MODULE_A:ACTION_B", "MODULE_B:ACTION_A"}, logical = LogicType.OR)
+        @RequirePermission(value = {"MODULE_A:ACTION_C", "MODULE_C:ACTION_A"}, logical = LogicType.AND)
+        public long multiple(long value) {
+            return value + 1;
+        }
+    }
+
+    private Target target;
+    private Target proxy;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> registered = BenchmarkFixtures.permissionCodes(100);
+        PermissionRegistry permissionRegistry = BenchmarkFixtures.permissionRegistry(registered);
+        PermissionCheckService permissionCheckService = BenchmarkFixtures.permissionCheckService(permissionRegistry);
+
+        target = new Target();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new PermissionAspect(permissionCheckService, permissionRegistry, null));
+        proxy = factory.getProxy();
+
+        UserPrincipal principal = BenchmarkFixtures.principal(registered);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public long direct() {
+        return target.single(counter++);
+    }
+
+    @Benchmark
+    public long proxiedWithoutAnnotation() {
+        return proxy.unprotected(counter++);
+    }
+
+    @Benchmark
+    public long singleAnnotation() {
+        return proxy.single(counter++);
+    }
+
+    @Benchmark
+    public long multipleAnnotations() {
+        return proxy.multiple(counter++);
+    }
+}
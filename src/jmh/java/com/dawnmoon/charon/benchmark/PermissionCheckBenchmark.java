@@ -0,0 +1,100 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.LogicType;
+import com.dawnmoon.charon.common.security.PermissionCheckService;
+import com.dawnmoon.charon.common.security.PermissionMask;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PermissionCheckService.checkPermission 基准
+ * 用户权限数、所需权限数和 AND/OR 组合下，对比预编译位图、每次编译位图和逐个 List.contains 的耗时
+ *
+ * <p>AND 时所需权限都在用户权限中，OR 时只有最后一个在，两种逻辑都需要检查全部所需权限（最坏情况）</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int userPermissions;
+
+    @Param({"1", "5"})
+    private int requiredPermissions;
+
+    @Param({"AND", "OR"})
+    private LogicType logical;
+
+    private PermissionCheckService permissionCheckService;
+    private UserPrincipal principal;
+    private List<String> granted;
+    private String[] required;
+    private PermissionMask requiredMask;
+
+    @Setup
+    public void setUp() {
+        List<String> registered = BenchmarkFixtures.permissionCodes(userPermissions * 2);
+        granted = List.copyOf(registered.subList(0, userPermissions));
+        List<String> notGranted = registered.subList(userPermissions, registered.size());
+
+        List<String> codes = new ArrayList<>(requiredPermissions);
+        for (int i = 0; i < requiredPermissions; i++) {
+            boolean owned = logical == LogicType.AND || i == requiredPermissions - 1;
+            List<String> source = owned ? granted : notGranted;
+            codes.add(source.get((int) ((long) (i + 1) * source.size() / (requiredPermissions + 1))));
+        }
+        required = codes.toArray(String[]::new);
+
+        permissionCheckService = BenchmarkFixtures.permissionCheckService(BenchmarkFixtures.permissionRegistry(registered));
+        principal = BenchmarkFixtures.principal(granted);
+        requiredMask = permissionCheckService.compile(required);
+        if (!permissionCheckService.checkPermission(principal, requiredMask, logical)) {
+            throw new IllegalStateException("基准数据不正确：权限检查应通过");
+        }
+    }
+
+    /**
+     * 预编译位图（@RequirePermission 切面使用的路径）
+     */
+    @Benchmark
+    public boolean compiledMask() {
+        return permissionCheckService.checkPermission(principal, requiredMask, logical);
+    }
+
+    /**
+     * 每次调用都编译所需权限（编程式检查使用的路径）
+     */
+    @Benchmark
+    public boolean codes() {
+        return permissionCheckService.checkPermission(principal, required, logical);
+    }
+
+    /**
+     * 参照：逐个在用户权限列表中查找
+     */
+    @Benchmark
+    public boolean listContains() {
+        return logical == LogicType.AND
+                ? Arrays.stream(required).allMatch(granted::contains)
+                : Arrays.stream(required).anyMatch(granted::contains);
+    }
+}
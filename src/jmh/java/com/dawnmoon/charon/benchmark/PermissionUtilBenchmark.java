@@ -0,0 +1,54 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.PermissionTrie;
+import com.dawnmoon.charon.util.PermissionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限编码校验和匹配基准（合法、非法格式和较长编码）
+ * 前缀树中包含 500 个编码和一个模块通配编码 USER:*
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionUtilBenchmark {
+
+    @Param({"USER:CREATE", "user:create", "USER_ROLE_MANAGEMENT:BATCH_ASSIGN_ROLES"})
+    private String code;
+
+    private PermissionTrie trie;
+
+    @Setup
+    public void setUp() {
+        List<String> codes = new ArrayList<>(BenchmarkFixtures.permissionCodes(500));
+        codes.add("USER:*");
+        trie = new PermissionTrie(codes);
+    }
+
+    @Benchmark
+    public boolean isValidPermissionCode() {
+        return PermissionUtil.isValidPermissionCode(code);
+    }
+
+    @Benchmark
+    public boolean trieImplies() {
+        return trie.implies(code);
+    }
+}
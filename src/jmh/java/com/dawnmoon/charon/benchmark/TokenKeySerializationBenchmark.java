@@ -0,0 +1,55 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.config.RedisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * user_id_to_token 值（Token 字符串）的 Redis 序列化基准
+ * 通用模板的 JSON（带类型信息） vs TokenStore 使用的 StringRedisTemplate，均为序列化 + 反序列化一次往返；
+ * UserPrincipal 的对比见 {@link UserPrincipalSerializationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenKeySerializationBenchmark {
+
+    private RedisSerializer<Object> json;
+    private RedisSerializer<String> string;
+    private String token;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        json = (RedisSerializer<Object>) new RedisConfig().redisTemplate(new LettuceConnectionFactory())
+                .getValueSerializer();
+        string = RedisSerializer.string();
+        token = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    public Object jsonRoundTrip() {
+        return json.deserialize(json.serialize(token));
+    }
+
+    @Benchmark
+    public String stringRoundTrip() {
+        return string.deserialize(string.serialize(token));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dawnmoon.charon.benchmark;
+
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.config.RedisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserPrincipal 的 Redis 序列化基准
+ * 使用 RedisConfig 中实际配置的序列化器：通用模板的 JSON（带类型信息）和 principalRedisTemplate 的二进制编码
+ * 连接工厂只用于构造模板，不会建立连接
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalSerializationBenchmark {
+
+    @Param({"1", "10"})
+    private int roles;
+
+    private RedisSerializer<Object> json;
+    private RedisSerializer<UserPrincipal> binary;
+    private UserPrincipal principal;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory();
+        RedisConfig redisConfig = new RedisConfig();
+        json = (RedisSerializer<Object>) redisConfig.redisTemplate(connectionFactory).getValueSerializer();
+        binary = (RedisSerializer<UserPrincipal>) redisConfig.principalRedisTemplate(connectionFactory, true)
+                .getValueSerializer();
+
+        Map<Long, Long> roleVersions = new LinkedHashMap<>();
+        for (long roleId = 1; roleId <= roles; roleId++) {
+            roleVersions.put(roleId, roleId * 7);
+        }
+        long now = System.currentTimeMillis();
+        principal = new UserPrincipal(10001L, "benchmark", roleVersions, now, now + 86_400_000L);
+        jsonBytes = json.serialize(principal);
+        binaryBytes = binary.serialize(principal);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return json.serialize(principal);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binary.serialize(principal);
+    }
+
+    @Benchmark
+    public UserPrincipal binaryDeserialize() {
+        return binary.deserialize(binaryBytes);
+    }
+}
@@ -0,0 +1,78 @@
+package com.dawnmoon.charon.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 单个操作的耗时记录
+ * 每个工作线程各持有一份，压测结束后合并，避免记录本身在线程间产生竞争
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+    private long rejected;
+
+    /**
+     * 记录一次成功请求的耗时
+     */
+    void record(long latencyNanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+    }
+
+    /**
+     * 记录一次失败请求（非 2xx 或业务码不是 SUCCESS）
+     */
+    void recordError() {
+        errors++;
+    }
+
+    /**
+     * 记录一次被限流的请求（HTTP 429）
+     */
+    void recordRejected() {
+        rejected++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > latencies.length) {
+            latencies = Arrays.copyOf(latencies, size + other.size);
+        }
+        System.arraycopy(other.latencies, 0, latencies, size, other.size);
+        size += other.size;
+        errors += other.errors;
+        rejected += other.rejected;
+    }
+
+    /**
+     * 汇总为报告中的一行
+     *
+     * @param elapsedSeconds 计入报告的压测时长
+     */
+    Summary summarize(String operation, double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        return new Summary(operation, size, errors, rejected,
+                size / elapsedSeconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * 单个操作的统计结果，耗时单位为毫秒
+     */
+    record Summary(String operation, long requests, long errors, long rejected, double throughput,
+                   double p50, double p90, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.dawnmoon.charon.loadtest;
+
+import com.github.fridujo.rabbitmq.mock.MockConnectionFactory;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 压测使用的内存 AMQP Broker
+ * 替换 RabbitAutoConfiguration 创建的连接工厂，RabbitTemplate 和 @RabbitListener 无需改动
+ */
+@Configuration
+public class LoadTestAmqpConfig {
+
+    @Bean
+    public ConnectionFactory connectionFactory() {
+        return new CachingConnectionFactory(new MockConnectionFactory());
+    }
+
+    /**
+     * MQServiceImpl 监听的队列，真实环境中由 Broker 预先创建
+     */
+    @Bean
+    public Queue javaTestQueue() {
+        return new Queue("java_test");
+    }
+}
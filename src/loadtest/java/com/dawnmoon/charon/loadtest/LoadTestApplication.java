@@ -0,0 +1,130 @@
+package com.dawnmoon.charon.loadtest;
+
+import com.dawnmoon.charon.CharonApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 端到端压测入口
+ * 启动内嵌 Redis、H2（MySQL 兼容模式）和内存 AMQP Broker，准备数据后以随机端口启动应用，
+ * 通过 HTTP 按配置的操作权重施压，输出各操作的延迟分位数和吞吐量
+ *
+ * <p>运行：mvn -Ploadtest verify -Dloadtest.args="--loadtest.users=5000 --loadtest.concurrency=64"，
+ * 参数见 {@link LoadTestOptions}</p>
+ * <p>H2 和内嵌 Redis 与生产环境的 MySQL / Redis 性能特征不同，结果用于同一环境下的版本对比和瓶颈定位，
+ * 不代表线上容量</p>
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:charon;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        int redisPort = freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        ConfigurableApplicationContext context = null;
+        try {
+            LoadTestDataSeeder.SeedResult seed = LoadTestDataSeeder.seed(JDBC_URL, options);
+
+            // 系统属性优先于 application-{profile}.yaml，命令行传入的 Spring 参数可以再覆盖这些值
+            defaultProperty("spring.datasource.url", JDBC_URL);
+            defaultProperty("spring.datasource.driver-class-name", "org.h2.Driver");
+            defaultProperty("spring.datasource.username", "sa");
+            defaultProperty("spring.datasource.password", "");
+            defaultProperty("spring.data.redis.host", "localhost");
+            defaultProperty("spring.data.redis.port", String.valueOf(redisPort));
+            defaultProperty("spring.data.redis.password", "");
+            defaultProperty("server.port", "0");
+            defaultProperty("decorator.datasource.p6spy.enable", "false");
+            // logback-spring.xml 把应用包和 Mapper 设为 DEBUG，逐请求输出日志会严重拖慢压测，这里一并调低
+            defaultProperty("logging.level.root", "WARN");
+            defaultProperty("logging.level.com.dawnmoon.charon", "WARN");
+            defaultProperty("logging.level.com.dawnmoon.charon.mapper", "WARN");
+            defaultProperty("logging.level.p6spy", "WARN");
+            defaultProperty("logging.level.com.dawnmoon.charon.loadtest", "INFO");
+
+            context = new SpringApplicationBuilder(CharonApplication.class, LoadTestAmqpConfig.class)
+                    .run(options.springArgs());
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+            long start = System.nanoTime();
+            Map<LoadTestOperation, LatencyRecorder> results = new LoadTestWorkload(baseUri, options, seed).run();
+            log.info("压测结束，总耗时={}s", (System.nanoTime() - start) / 1_000_000_000);
+
+            report(options, results);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            redisServer.stop();
+        }
+        // HTTP 客户端和连接池的线程不影响结果，直接退出
+        System.exit(0);
+    }
+
+    /**
+     * 打印报告并写入 JSON 文件
+     */
+    private static void report(LoadTestOptions options, Map<LoadTestOperation, LatencyRecorder> results) throws IOException {
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        LatencyRecorder total = new LatencyRecorder();
+        results.forEach((operation, recorder) -> {
+            summaries.add(recorder.summarize(operation.getName(), options.durationSeconds()));
+            total.merge(recorder);
+        });
+        summaries.add(total.summarize("total", options.durationSeconds()));
+
+        StringBuilder table = new StringBuilder(String.format("%n%-16s %10s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "429", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        for (LatencyRecorder.Summary summary : summaries) {
+            table.append(String.format("%-16s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.operation(), summary.requests(), summary.errors(), summary.rejected(), summary.throughput(),
+                    summary.p50(), summary.p90(), summary.p99(), summary.p999(), summary.max()));
+        }
+        log.info("压测结果：{}", table);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", options.users());
+        report.put("roles", options.roles());
+        report.put("permissions", options.permissions());
+        report.put("concurrency", options.concurrency());
+        report.put("warmupSeconds", options.warmupSeconds());
+        report.put("durationSeconds", options.durationSeconds());
+        report.put("mix", options.mix());
+        report.put("results", summaries);
+
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.report().toFile(), report);
+        log.info("压测报告已写入 {}", options.report().toAbsolutePath());
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.dawnmoon.charon.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 压测数据准备
+ * 在 H2（MySQL 兼容模式）中执行 sql/mysql 下的建表脚本和示例数据，再按参数批量追加用户、角色和权限
+ *
+ * <p>建表脚本按 H2 的语法做最小改写：去掉建库语句、全文索引和表选项；
+ * H2 的索引名在整个 schema 内唯一，表内的普通索引改为带表名前缀的 CREATE INDEX</p>
+ * <p>追加的用户复用示例数据中的密码哈希（没有算法前缀），首次登录时会按当前配置重新计算</p>
+ */
+@Slf4j
+final class LoadTestDataSeeder {
+
+    private static final String SCHEMA_SCRIPT = "sql/mysql/schema.sql";
+    private static final String DATA_SCRIPT = "sql/mysql/example_data.sql";
+
+    /**
+     * 示例数据中的 USER 角色，只有查看权限
+     */
+    private static final long USER_ROLE_ID = 3L;
+
+    private static final long USER_ID_BASE = 1_000_000L;
+    private static final long ROLE_ID_BASE = 10_000L;
+    private static final long PERMISSION_ID_BASE = 100_000L;
+    private static final long USER_ROLE_ID_BASE = 2_000_000L;
+    private static final long ROLE_PERMISSION_ID_BASE = 5_000_000L;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("^\\s*CREATE TABLE `(\\w+)`");
+    private static final Pattern INDEX = Pattern.compile("^\\s*KEY `(\\w+)` (\\(.*\\)),?\\s*$");
+
+    private LoadTestDataSeeder() {
+    }
+
+    /**
+     * 准备好的数据
+     *
+     * @param usernames     追加的用户名，按工作线程顺序分配
+     * @param permissionIds 全部权限 ID
+     */
+    record SeedResult(List<String> usernames, List<Long> permissionIds) {
+    }
+
+    static SeedResult seed(String jdbcUrl, LoadTestOptions options) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, script(toH2Schema(read(SCHEMA_SCRIPT))));
+            ScriptUtils.executeSqlScript(connection, script(read(DATA_SCRIPT).replaceAll("(?m)^USE .*;$", "")));
+
+            connection.setAutoCommit(false);
+            Random random = new Random(42);
+            List<Long> permissionIds = seedPermissions(connection, options.permissions());
+            List<Long> roleIds = seedRoles(connection, options.roles());
+            seedRolePermissions(connection, roleIds, permissionIds, options.permissionsPerRole(), random);
+            List<String> usernames = seedUsers(connection, options.users(), adminPasswordHash(connection));
+            seedUserRoles(connection, options.users(), roleIds, options.rolesPerUser(), random);
+            connection.commit();
+
+            log.info("压测数据准备完成: users={}, roles={}, permissions={}, 耗时={}ms",
+                    usernames.size(), roleIds.size(), permissionIds.size(), System.currentTimeMillis() - start);
+            return new SeedResult(usernames, permissionIds);
+        }
+    }
+
+    /**
+     * MySQL 建表脚本改写为 H2 可执行的脚本
+     */
+    static String toH2Schema(String mysqlSchema) {
+        StringBuilder schema = new StringBuilder();
+        List<String> indexes = new ArrayList<>();
+        String table = null;
+        for (String line : mysqlSchema.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("CREATE DATABASE") || trimmed.startsWith("USE ") || trimmed.startsWith("SET ")
+                    || trimmed.startsWith("FULLTEXT KEY")) {
+                continue;
+            }
+            Matcher createTable = CREATE_TABLE.matcher(line);
+            if (createTable.find()) {
+                table = createTable.group(1);
+            }
+            Matcher index = INDEX.matcher(line);
+            if (index.matches()) {
+                indexes.add("CREATE INDEX `" + table + "_" + index.group(1) + "` ON `" + table + "` " + index.group(2) + ";");
+                continue;
+            }
+            schema.append(line).append('\n');
+        }
+
+        return schema.toString()
+                // 删除索引行后留下的尾逗号
+                .replaceAll(",(\\s*(--[^\\n]*)?\\n)*\\s*\\)", "\n)")
+                // ENGINE / CHARSET / COMMENT 等表选项
+                .replaceAll("\\)\\s*ENGINE[^;]*;", ");")
+                + String.join("\n", indexes) + "\n";
+    }
+
+    private static List<Long> seedPermissions(Connection connection, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count + 17);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM sys_permission")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+
+        String sql = "INSERT INTO sys_permission (id, permission_code, permission_name, description) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long id = PERMISSION_ID_BASE + i;
+                // 权限编码只允许大写字母和下划线，每个模块 10 个操作
+                statement.setLong(1, id);
+                statement.setString(2, "LOAD_" + letters(i / 10) + ":ACTION_" + letters(i % 10));
+                statement.setString(3, "压测权限" + i);
+                statement.setString(4, "压测生成的权限");
+                addBatch(statement, i);
+                ids.add(id);
+            }
+            statement.executeBatch();
+        }
+        return ids;
+    }
+
+    private static List<Long> seedRoles(Connection connection, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count);
+        String sql = "INSERT INTO sys_role (id, role_name, description, status) VALUES (?, ?, ?, 0)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long id = ROLE_ID_BASE + i;
+                statement.setLong(1, id);
+                statement.setString(2, "LOAD_ROLE_" + letters(i));
+                statement.setString(3, "压测生成的角色");
+                addBatch(statement, i);
+                ids.add(id);
+            }
+            statement.executeBatch();
+        }
+        return ids;
+    }
+
+    private static void seedRolePermissions(Connection connection, List<Long> roleIds, List<Long> permissionIds,
+                                            int permissionsPerRole, Random random) throws SQLException {
+        String sql = "INSERT INTO sys_role_permission (id, role_id, permission_id) VALUES (?, ?, ?)";
+        long id = ROLE_PERMISSION_ID_BASE;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Long roleId : roleIds) {
+                for (Long permissionId : sample(permissionIds, permissionsPerRole, random)) {
+                    statement.setLong(1, id);
+                    statement.setLong(2, roleId);
+                    statement.setLong(3, permissionId);
+                    addBatch(statement, id++);
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static List<String> seedUsers(Connection connection, int count, String passwordHash) throws SQLException {
+        List<String> usernames = new ArrayList<>(count);
+        String sql = "INSERT INTO sys_user (id, username, password, real_name, email, status) VALUES (?, ?, ?, ?, ?, 0)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                String username = "loadtest" + i;
+                statement.setLong(1, USER_ID_BASE + i);
+                statement.setString(2, username);
+                statement.setString(3, passwordHash);
+                statement.setString(4, "压测用户" + i);
+                statement.setString(5, username + "@example.com");
+                addBatch(statement, i);
+                usernames.add(username);
+            }
+            statement.executeBatch();
+        }
+        return usernames;
+    }
+
+    private static void seedUserRoles(Connection connection, int users, List<Long> roleIds, int rolesPerUser,
+                                      Random random) throws SQLException {
+        String sql = "INSERT INTO sys_user_role (id, user_id, role_id) VALUES (?, ?, ?)";
+        long id = USER_ROLE_ID_BASE;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < users; i++) {
+                List<Long> userRoleIds = new ArrayList<>(sample(roleIds, rolesPerUser, random));
+                userRoleIds.add(USER_ROLE_ID);
+                for (Long roleId : userRoleIds) {
+                    statement.setLong(1, id);
+                    statement.setLong(2, USER_ID_BASE + i);
+                    statement.setLong(3, roleId);
+                    addBatch(statement, id++);
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static String adminPasswordHash(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT password FROM sys_user WHERE username = 'admin'")) {
+            if (!resultSet.next()) {
+                throw new IllegalStateException("示例数据中没有 admin 用户");
+            }
+            return resultSet.getString(1);
+        }
+    }
+
+    private static void addBatch(PreparedStatement statement, long index) throws SQLException {
+        statement.addBatch();
+        if ((index + 1) % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private static Set<Long> sample(List<Long> ids, int count, Random random) {
+        Set<Long> sample = new HashSet<>();
+        int target = Math.min(count, ids.size());
+        while (sample.size() < target) {
+            sample.add(ids.get(random.nextInt(ids.size())));
+        }
+        return sample;
+    }
+
+    /**
+     * 非负整数转为大写字母序号：0 → A，25 → Z，26 → BA
+     */
+    private static String letters(int value) {
+        StringBuilder builder = new StringBuilder();
+        do {
+            builder.insert(0, (char) ('A' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return builder.toString();
+    }
+
+    private static String read(String path) throws IOException {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static EncodedResource script(String sql) {
+        return new EncodedResource(new ByteArrayResource(sql.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+}
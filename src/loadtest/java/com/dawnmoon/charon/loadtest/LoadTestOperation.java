@@ -0,0 +1,56 @@
+package com.dawnmoon.charon.loadtest;
+
+/**
+ * 压测操作
+ */
+enum LoadTestOperation {
+
+    /**
+     * 重新登录（密码哈希 + 会话写入），成功后替换当前线程的 Token
+     */
+    LOGIN("login"),
+
+    /**
+     * 查询当前用户登录时间（只经过 Token 校验）
+     */
+    LOGIN_TIME("login-time"),
+
+    /**
+     * 分页查询用户列表（USER:VIEW）
+     */
+    USER_LIST("user-list"),
+
+    /**
+     * 分页查询角色列表（ROLE:VIEW）
+     */
+    ROLE_LIST("role-list"),
+
+    /**
+     * 分页查询权限列表（PERMISSION:VIEW）
+     */
+    PERMISSION_LIST("permission-list"),
+
+    /**
+     * 按 ID 查询权限（PERMISSION:VIEW）
+     */
+    PERMISSION_GET("permission-get");
+
+    private final String name;
+
+    LoadTestOperation(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    static LoadTestOperation fromName(String name) {
+        for (LoadTestOperation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("未知的压测操作: " + name);
+    }
+}
@@ -0,0 +1,106 @@
+package com.dawnmoon.charon.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数
+ * 以 --loadtest.xxx=value 的形式传入，其余参数（如 --app.security.password.bcrypt.strength=4）原样传给 Spring Boot
+ *
+ * @param users              在示例数据基础上追加的用户数
+ * @param roles              追加的角色数
+ * @param permissions        追加的权限数
+ * @param rolesPerUser       每个追加用户额外拥有的追加角色数（另外固定拥有示例数据中的 USER 角色）
+ * @param permissionsPerRole 每个追加角色拥有的权限数
+ * @param password           所有用户的登录密码（示例数据中的密码）
+ * @param concurrency        并发工作线程数，每个线程以一个独立用户登录
+ * @param warmupSeconds      预热时长（结果不计入报告）
+ * @param durationSeconds    计入报告的压测时长
+ * @param mix                操作权重，如 login:5,user-list:40,permission-get:55
+ * @param report             JSON 报告输出路径
+ * @param springArgs         传给 Spring Boot 的其余参数
+ */
+record LoadTestOptions(int users,
+                       int roles,
+                       int permissions,
+                       int rolesPerUser,
+                       int permissionsPerRole,
+                       String password,
+                       int concurrency,
+                       int warmupSeconds,
+                       int durationSeconds,
+                       Map<LoadTestOperation, Integer> mix,
+                       Path report,
+                       String[] springArgs) {
+
+    private static final String PREFIX = "--loadtest.";
+    private static final String DEFAULT_MIX =
+            "login:2,login-time:18,user-list:25,role-list:15,permission-list:15,permission-get:25";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith(PREFIX) && eq > 0) {
+                values.put(arg.substring(PREFIX.length(), eq), arg.substring(eq + 1));
+            } else if (!arg.isBlank()) {
+                springArgs.add(arg);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                intValue(values, "users", 1000),
+                intValue(values, "roles", 50),
+                intValue(values, "permissions", 500),
+                intValue(values, "roles-per-user", 3),
+                intValue(values, "permissions-per-role", 40),
+                values.getOrDefault("password", "qut@123456"),
+                intValue(values, "concurrency", 32),
+                intValue(values, "warmup-seconds", 10),
+                intValue(values, "duration-seconds", 60),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")),
+                springArgs.toArray(String[]::new));
+
+        if (options.concurrency() < 1 || options.durationSeconds() < 1) {
+            throw new IllegalArgumentException("concurrency 和 duration-seconds 必须大于 0");
+        }
+        if (options.users() < options.concurrency()) {
+            // 同一用户的多个会话会按 app.security.session.max-devices 互相挤下线，每个线程需要独立用户
+            throw new IllegalArgumentException("users 不能小于 concurrency: users=" + options.users()
+                    + ", concurrency=" + options.concurrency());
+        }
+        if (options.rolesPerUser() > options.roles()) {
+            throw new IllegalArgumentException("roles-per-user 不能大于 roles");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static Map<LoadTestOperation, Integer> parseMix(String mix) {
+        Map<LoadTestOperation, Integer> weights = new EnumMap<>(LoadTestOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("操作权重格式错误: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(LoadTestOperation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("操作权重不能为空: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,252 @@
+package com.dawnmoon.charon.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 压测负载
+ * 闭环模型：每个工作线程以独立用户登录，之后按权重随机选择操作并连续发送请求（收到响应后立即发下一个）
+ *
+ * <p>预热阶段的请求不计入统计；统计阶段只记录在统计开始之后发出的请求</p>
+ * <p>HTTP 429 单独计为限流，其他非 2xx 或业务码不是 SUCCESS 的响应计为错误，两者都不计入耗时分布</p>
+ */
+@Slf4j
+final class LoadTestWorkload {
+
+    private static final String SUCCESS = "SUCCESS";
+    private static final int PAGE_SIZE = 20;
+    private static final int LOGIN_RETRIES = 50;
+
+    private final URI baseUri;
+    private final LoadTestOptions options;
+    private final LoadTestDataSeeder.SeedResult seed;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LoadTestOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadTestWorkload(URI baseUri, LoadTestOptions options, LoadTestDataSeeder.SeedResult seed) {
+        this.baseUri = baseUri;
+        this.options = options;
+        this.seed = seed;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        this.operations = options.mix().keySet().toArray(LoadTestOperation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * 执行压测
+     *
+     * @return 各操作的合并记录
+     */
+    Map<LoadTestOperation, LatencyRecorder> run() throws Exception {
+        List<Worker> workers = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.add(new Worker(seed.usernames().get(i), new Random(i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.concurrency());
+        try {
+            // 首次登录会重新计算种子数据中的密码哈希，放在预热之前完成
+            long loginStart = System.currentTimeMillis();
+            List<Future<?>> logins = new ArrayList<>();
+            for (Worker worker : workers) {
+                logins.add(executor.submit(() -> {
+                    worker.initialLogin();
+                    return null;
+                }));
+            }
+            for (Future<?> login : logins) {
+                login.get();
+            }
+            log.info("工作线程登录完成: workers={}, 耗时={}ms", workers.size(), System.currentTimeMillis() - loginStart);
+
+            long measureStart = System.nanoTime() + options.warmupSeconds() * 1_000_000_000L;
+            long measureEnd = measureStart + options.durationSeconds() * 1_000_000_000L;
+            log.info("开始压测: warmup={}s, duration={}s, concurrency={}, mix={}",
+                    options.warmupSeconds(), options.durationSeconds(), options.concurrency(), options.mix());
+
+            List<Future<?>> runs = new ArrayList<>();
+            for (Worker worker : workers) {
+                runs.add(executor.submit(() -> {
+                    worker.run(measureStart, measureEnd);
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<LoadTestOperation, LatencyRecorder> merged = new EnumMap<>(LoadTestOperation.class);
+        for (LoadTestOperation operation : operations) {
+            merged.put(operation, new LatencyRecorder());
+        }
+        for (Worker worker : workers) {
+            worker.recorders.forEach((operation, recorder) -> merged.get(operation).merge(recorder));
+        }
+        return merged;
+    }
+
+    private LoadTestOperation nextOperation(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * 工作线程，持有自己的用户会话和耗时记录
+     */
+    private final class Worker {
+
+        private final String username;
+        private final Random random;
+        private final Map<LoadTestOperation, LatencyRecorder> recorders = new EnumMap<>(LoadTestOperation.class);
+        private String token;
+
+        private Worker(String username, Random random) {
+            this.username = username;
+            this.random = random;
+            for (LoadTestOperation operation : operations) {
+                recorders.put(operation, new LatencyRecorder());
+            }
+        }
+
+        /**
+         * 压测前登录，被限流时退避重试
+         */
+        private void initialLogin() throws IOException, InterruptedException {
+            for (int attempt = 0; attempt < LOGIN_RETRIES; attempt++) {
+                HttpResponse<String> response = httpClient.send(request(LoadTestOperation.LOGIN), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 429) {
+                    Thread.sleep(100L + random.nextInt(200));
+                    continue;
+                }
+                JsonNode body = objectMapper.readTree(response.body());
+                if (response.statusCode() != 200 || !SUCCESS.equals(body.path("code").asText())) {
+                    throw new IllegalStateException("登录失败: username=" + username + ", response=" + response.body());
+                }
+                token = body.path("data").asText();
+                return;
+            }
+            throw new IllegalStateException("登录持续被限流: username=" + username);
+        }
+
+        private void run(long measureStart, long measureEnd) throws InterruptedException {
+            while (!Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                if (start >= measureEnd) {
+                    return;
+                }
+                LoadTestOperation operation = nextOperation(random);
+                LatencyRecorder recorder = recorders.get(operation);
+                boolean measured = start >= measureStart;
+                try {
+                    HttpResponse<String> response = httpClient.send(request(operation), HttpResponse.BodyHandlers.ofString());
+                    long latency = System.nanoTime() - start;
+                    if (!measured) {
+                        checkResponse(operation, response);
+                    } else if (response.statusCode() == 429) {
+                        recorder.recordRejected();
+                    } else if (checkResponse(operation, response)) {
+                        recorder.record(latency);
+                    } else {
+                        recorder.recordError();
+                    }
+                } catch (IOException e) {
+                    if (measured) {
+                        recorder.recordError();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 校验响应，登录成功时替换当前 Token
+         *
+         * @return 是否成功
+         */
+        private boolean checkResponse(LoadTestOperation operation, HttpResponse<String> response) throws IOException {
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            if (!SUCCESS.equals(body.path("code").asText())) {
+                return false;
+            }
+            if (operation == LoadTestOperation.LOGIN) {
+                token = body.path("data").asText();
+            }
+            return true;
+        }
+
+        private HttpRequest request(LoadTestOperation operation) {
+            return switch (operation) {
+                case LOGIN -> HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(loginBody()))
+                        .build();
+                case LOGIN_TIME -> get("/api/auth/login-time");
+                case USER_LIST -> get("/api/user/list?pageNum=" + page(options.users()) + "&pageSize=" + PAGE_SIZE);
+                case ROLE_LIST -> get("/api/role/list?pageNum=" + page(options.roles()) + "&pageSize=" + PAGE_SIZE);
+                case PERMISSION_LIST -> get("/api/permission/list?pageNum=" + page(options.permissions()) + "&pageSize=" + PAGE_SIZE);
+                case PERMISSION_GET -> get("/api/permission/"
+                        + seed.permissionIds().get(random.nextInt(seed.permissionIds().size())));
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+
+        /**
+         * 前 10 页内随机取一页，模拟列表页的常见访问
+         */
+        private int page(int rows) {
+            int pages = Math.max(1, Math.min(10, rows / PAGE_SIZE));
+            return 1 + random.nextInt(pages);
+        }
+
+        private String loginBody() {
+            return objectMapper.createObjectNode()
+                    .put("username", username)
+                    .put("password", options.password())
+                    .toString();
+        }
+    }
+}
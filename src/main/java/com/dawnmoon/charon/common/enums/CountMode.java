@@ -0,0 +1,43 @@
+package com.dawnmoon.charon.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 分页总数统计方式
+ */
+@Getter
+public enum CountMode implements BaseEnum<String> {
+
+    /**
+     * 精确统计：执行 COUNT(*)，返回 total 和 pages
+     */
+    EXACT("EXACT", "精确统计总数"),
+
+    /**
+     * 不统计：跳过 COUNT(*)，只通过多查一条返回 hasNext
+     */
+    NONE("NONE", "不统计总数"),
+
+    /**
+     * 估算：无关键词时读取表统计信息，有关键词时使用短时缓存的统计结果
+     */
+    ESTIMATED("ESTIMATED", "估算总数");
+
+    private final String code;
+    private final String description;
+
+    CountMode(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
@@ -17,6 +17,7 @@ public enum ErrorCode implements BaseEnum<String> {
     FORBIDDEN("FORBIDDEN", "没有访问权限"),
     NOT_FOUND("NOT_FOUND", "请求的资源不存在"),
     VALIDATE_FAILED("VALIDATE_FAILED", "参数校验失败"),
+    TOO_MANY_REQUESTS("TOO_MANY_REQUESTS", "请求过多，请稍后再试"),
 
     // 业务错误 5xx
     BUSINESS_ERROR("BUSINESS_ERROR", "业务处理失败"),
@@ -3,6 +3,7 @@ package com.dawnmoon.charon.common.exception;
 import com.dawnmoon.charon.common.api.ApiResponse;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.Set;
@@ -46,6 +48,18 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(e.getErrorCode(), e.getMessage());
     }
 
+    /**
+     * 请求过多异常处理
+     * 场景：服务端资源（如密码哈希线程池）已满，快速拒绝并提示客户端稍后重试
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiResponse<Void> handleTooManyRequestsException(TooManyRequestsException e, HttpServletResponse response) {
+        log.warn("请求过多: {}", e.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return ApiResponse.error(e.getErrorCode(), e.getMessage());
+    }
+
     /**
      * 参数校验异常处理 - @Valid 注解触发
      * 场景：Controller方法参数使用@Valid注解，校验失败时触发
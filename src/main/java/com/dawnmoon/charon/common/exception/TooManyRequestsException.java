@@ -0,0 +1,26 @@
+package com.dawnmoon.charon.common.exception;
+
+import com.dawnmoon.charon.common.enums.ErrorCode;
+
+/**
+ * 请求过多异常
+ * 用于服务端资源（如密码哈希线程池）已满时的快速拒绝，由全局异常处理器返回 HTTP 429
+ */
+public class TooManyRequestsException extends BusinessException {
+
+    /**
+     * 构造请求过多异常（使用默认消息）
+     */
+    public TooManyRequestsException() {
+        super(ErrorCode.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * 构造请求过多异常（使用自定义消息）
+     *
+     * @param message 自定义错误消息
+     */
+    public TooManyRequestsException(String message) {
+        super(ErrorCode.TOO_MANY_REQUESTS, message);
+    }
+}
@@ -0,0 +1,189 @@
+package com.dawnmoon.charon.common.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 进程内二元组倒排索引
+ * 每个字段按小写后的相邻两个字符切分，二元组 → 升序ID数组；查询时对关键词的所有二元组求交集
+ *
+ * <p>结果是候选集（可能多于真实匹配），调用方需在数据库中用 LIKE 复核</p>
+ * <p>索引是不可变快照，由 {@link KeywordSearchResolver} 定期合并增量或整体重建后替换；
+ * 合并时不删除行的旧倒排项，修改、删除过的行只会多出候选，直到下次整体重建</p>
+ */
+public final class InMemoryKeywordIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, long[]> postings;
+    private final int documentCount;
+    private final LocalDateTime indexedSince;
+
+    private InMemoryKeywordIndex(Map<String, long[]> postings, int documentCount, LocalDateTime indexedSince) {
+        this.postings = postings;
+        this.documentCount = documentCount;
+        this.indexedSince = indexedSince;
+    }
+
+    /**
+     * 创建索引构建器
+     *
+     * @param indexedSince 数据读取开始时间，此后更新的行需由数据库额外匹配
+     */
+    public static Builder builder(LocalDateTime indexedSince) {
+        return new Builder(indexedSince);
+    }
+
+    /**
+     * 查询候选ID
+     *
+     * @param keyword       关键词
+     * @param maxCandidates 候选数上限
+     * @return 候选ID（升序）；关键词过短、包含 LIKE 通配符或候选数超过上限（索引无区分度）时返回 null，调用方应回退到 LIKE
+     */
+    public long[] candidates(String keyword, int maxCandidates) {
+        if (keyword == null || keyword.indexOf('_') >= 0 || keyword.indexOf('%') >= 0) {
+            // 关键词未转义，_ 和 % 在 LIKE 中是通配符，按字面切分的二元组会漏掉匹配的行
+            return null;
+        }
+        List<String> grams = grams(keyword);
+        if (grams.isEmpty()) {
+            return null;
+        }
+        List<long[]> lists = new ArrayList<>(grams.size());
+        for (String gram : new HashSet<>(grams)) {
+            long[] ids = postings.get(gram);
+            if (ids == null) {
+                return EMPTY;
+            }
+            lists.add(ids);
+        }
+        // 从最短的倒排链开始求交集
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result.length > maxCandidates ? null : result;
+    }
+
+    /**
+     * 合并增量索引
+     *
+     * @param changes 上次读取后更新过的行构建的索引
+     * @return 新索引，构建起点取增量索引的起点
+     */
+    public InMemoryKeywordIndex merge(InMemoryKeywordIndex changes) {
+        if (changes.postings.isEmpty()) {
+            return new InMemoryKeywordIndex(postings, documentCount, changes.indexedSince);
+        }
+        Map<String, long[]> merged = new HashMap<>(postings);
+        changes.postings.forEach((gram, ids) -> merged.merge(gram, ids, InMemoryKeywordIndex::union));
+        return new InMemoryKeywordIndex(Map.copyOf(merged), documentCount + changes.documentCount, changes.indexedSince);
+    }
+
+    /**
+     * 构建和合并过的行数（同一行合并多次时重复计数）
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public LocalDateTime getIndexedSince() {
+        return indexedSince;
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static List<String> grams(String text) {
+        if (text == null || text.length() < 2) {
+            return List.of();
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        List<String> grams = new ArrayList<>(lower.length() - 1);
+        for (int i = 0; i + 1 < lower.length(); i++) {
+            grams.add(lower.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 索引构建器（非线程安全）
+     */
+    public static final class Builder {
+
+        private final LocalDateTime indexedSince;
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private int documentCount;
+
+        private Builder(LocalDateTime indexedSince) {
+            this.indexedSince = indexedSince;
+        }
+
+        /**
+         * 添加一行数据
+         *
+         * @param id     主键
+         * @param fields 可搜索字段（允许为 null）
+         */
+        public Builder add(Long id, String... fields) {
+            for (String field : fields) {
+                for (String gram : grams(field)) {
+                    postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+                }
+            }
+            documentCount++;
+            return this;
+        }
+
+        public InMemoryKeywordIndex build() {
+            Map<String, long[]> frozen = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, ids) -> {
+                long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(sorted);
+                frozen.put(gram, sorted);
+            });
+            return new InMemoryKeywordIndex(Map.copyOf(frozen), documentCount, indexedSince);
+        }
+    }
+}
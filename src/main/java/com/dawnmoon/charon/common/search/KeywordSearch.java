@@ -0,0 +1,121 @@
+package com.dawnmoon.charon.common.search;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 关键词搜索条件
+ * 由 {@link KeywordSearchResolver} 根据搜索方式和关键词形态生成，作为 Mapper XML 的参数
+ *
+ * <p>无论走哪条索引路径，XML 中都会再用原始 LIKE 条件复核，索引只负责缩小扫描范围；
+ * 索引可能漏查的关键词（如 FULLTEXT 下分词包含停用词）由 {@link KeywordSearchResolver} 回退为 LIKE，因此结果与 LIKE 一致</p>
+ * <p>手机号、邮箱快速路径除外：它们只按前缀 / 精确匹配手机号或邮箱，结果是 LIKE 的子集，因此默认关闭</p>
+ */
+@Getter
+public class KeywordSearch {
+
+    /**
+     * 匹配类型
+     */
+    public enum MatchType {
+        /**
+         * 普通文本：在所有可搜索字段中包含匹配
+         */
+        TEXT,
+        /**
+         * 完整手机号：phone = 关键词
+         */
+        PHONE_EXACT,
+        /**
+         * 手机号前缀：phone LIKE '关键词%'
+         */
+        PHONE_PREFIX,
+        /**
+         * 完整邮箱：email = 关键词
+         */
+        EMAIL_EXACT,
+        /**
+         * 邮箱前缀：email LIKE '关键词%'
+         */
+        EMAIL_PREFIX
+    }
+
+    /**
+     * 原始关键词
+     */
+    private final String keyword;
+
+    /**
+     * 实际使用的搜索方式（索引不可用时回退为 LIKE）
+     */
+    private final SearchMode mode;
+
+    private final MatchType matchType;
+
+    /**
+     * FULLTEXT：MySQL BOOLEAN MODE 短语查询
+     */
+    private final String booleanQuery;
+
+    /**
+     * MEMORY：倒排索引给出的候选ID
+     */
+    private final Collection<Long> candidateIds;
+
+    /**
+     * MEMORY：索引构建起点，此后更新过的行不在索引中，需要额外匹配
+     */
+    private final LocalDateTime indexedSince;
+
+    private KeywordSearch(String keyword, SearchMode mode, MatchType matchType, String booleanQuery,
+                          Collection<Long> candidateIds, LocalDateTime indexedSince) {
+        this.keyword = keyword;
+        this.mode = mode;
+        this.matchType = matchType;
+        this.booleanQuery = booleanQuery;
+        this.candidateIds = candidateIds;
+        this.indexedSince = indexedSince;
+    }
+
+    public static KeywordSearch like(String keyword) {
+        return new KeywordSearch(keyword, SearchMode.LIKE, MatchType.TEXT, null, null, null);
+    }
+
+    public static KeywordSearch fulltext(String keyword, String booleanQuery) {
+        return new KeywordSearch(keyword, SearchMode.FULLTEXT, MatchType.TEXT, booleanQuery, null, null);
+    }
+
+    public static KeywordSearch memory(String keyword, Collection<Long> candidateIds, LocalDateTime indexedSince) {
+        return new KeywordSearch(keyword, SearchMode.MEMORY, MatchType.TEXT, null, candidateIds, indexedSince);
+    }
+
+    public static KeywordSearch of(String keyword, MatchType matchType) {
+        return new KeywordSearch(keyword, SearchMode.LIKE, matchType, null, null, null);
+    }
+
+    public boolean isFulltext() {
+        return mode == SearchMode.FULLTEXT;
+    }
+
+    public boolean isMemory() {
+        return mode == SearchMode.MEMORY;
+    }
+
+    public boolean isPhoneExact() {
+        return matchType == MatchType.PHONE_EXACT;
+    }
+
+    public boolean isPhonePrefix() {
+        return matchType == MatchType.PHONE_PREFIX;
+    }
+
+    public boolean isEmailExact() {
+        return matchType == MatchType.EMAIL_EXACT;
+    }
+
+    public boolean isEmailPrefix() {
+        return matchType == MatchType.EMAIL_PREFIX;
+    }
+}
@@ -0,0 +1,288 @@
+package com.dawnmoon.charon.common.search;
+
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.mapper.RoleMapper;
+import com.dawnmoon.charon.mapper.UserMapper;
+import com.dawnmoon.charon.model.entity.Permission;
+import com.dawnmoon.charon.model.entity.Role;
+import com.dawnmoon.charon.model.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 关键词搜索解析器
+ * 根据 app.search.mode 和关键词形态生成 {@link KeywordSearch}，对外的 keyword 参数保持不变
+ *
+ * <p>用户搜索的快速路径（app.search.fast-path，默认关闭）：完整手机号 / 邮箱走精确匹配，纯数字或包含 @ 的关键词走前缀匹配，
+ * 均可由普通 B-Tree 索引命中；这类关键词只匹配手机号或邮箱，结果是 LIKE 模式的子集，需确认业务接受后再开启</p>
+ * <p>FULLTEXT 模式下，ngram 分词会丢弃包含停用词的分词（默认停用词表含 a、i、in 等，如 ab、li 都会被丢弃），
+ * 这类关键词由全文索引查不到，包含停用词、空白或 LIKE 通配符的关键词因此回退为 LIKE；
+ * 全文索引按 schema.sql 关闭停用词建立时，可把 app.search.fulltext.stopwords 配置为空</p>
+ * <p>MEMORY 模式下启动时全量构建倒排索引，之后按 refresh-interval 只读取 update_at 晚于上次读取的行合并进索引，
+ * 按 rebuild-interval 全量重建以清理已修改、已删除行留下的旧倒排项（旧倒排项只会多出候选，由 LIKE 复核剔除）；
+ * 两次读取之间更新过的行通过 update_at 条件补充，因此其他节点的写入无需广播也不会漏查</p>
+ */
+@Slf4j
+@Component
+public class KeywordSearchResolver {
+
+    /**
+     * 完整手机号（中国大陆 11 位手机号）
+     */
+    private static final Pattern FULL_PHONE = Pattern.compile("^1\\d{10}$");
+
+    /**
+     * 手机号前缀（至少 3 位数字，允许国际区号 +）
+     */
+    private static final Pattern PHONE_PREFIX = Pattern.compile("^\\+?\\d{3,20}$");
+
+    /**
+     * 完整邮箱
+     */
+    private static final Pattern FULL_EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    /**
+     * MySQL ngram 分词长度（ngram_token_size 默认值），更短的关键词无法由 FULLTEXT 索引命中
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * InnoDB 默认停用词表（INFORMATION_SCHEMA.INNODB_FT_DEFAULT_STOPWORD）
+     */
+    private static final String INNODB_DEFAULT_STOPWORDS = "a,about,an,are,as,at,be,by,com,de,en,for,from,how,i,in,is,it,"
+            + "la,of,on,or,that,the,this,to,was,what,when,where,who,will,with,und,www";
+
+    /**
+     * 索引构建起点的回拨量，覆盖节点之间的时钟偏差
+     */
+    private static final Duration INDEX_LAG_MARGIN = Duration.ofSeconds(30);
+
+    private final UserMapper userMapper;
+    private final RoleMapper roleMapper;
+    private final PermissionMapper permissionMapper;
+
+    private final SearchMode mode;
+    private final boolean fastPath;
+    private final long rebuildIntervalSeconds;
+    private final long refreshIntervalSeconds;
+    private final int maxCandidates;
+
+    /**
+     * 长度不超过分词长度的停用词（更长的停用词不可能包含在分词中）
+     */
+    private final List<String> stopwords;
+
+    private final Map<SearchTarget, InMemoryKeywordIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 上次全量重建的时间（System.nanoTime）
+     */
+    private volatile long lastRebuild;
+
+    private ScheduledExecutorService scheduler;
+
+    public KeywordSearchResolver(UserMapper userMapper,
+                                 RoleMapper roleMapper,
+                                 PermissionMapper permissionMapper,
+                                 @Value("${app.search.mode:LIKE}") SearchMode mode,
+                                 @Value("${app.search.fast-path:false}") boolean fastPath,
+                                 @Value("${app.search.fulltext.stopwords:" + INNODB_DEFAULT_STOPWORDS + "}") String[] stopwords,
+                                 @Value("${app.search.memory.rebuild-interval:3600}") long rebuildIntervalSeconds,
+                                 @Value("${app.search.memory.refresh-interval:60}") long refreshIntervalSeconds,
+                                 @Value("${app.search.memory.max-candidates:5000}") int maxCandidates) {
+        this.userMapper = userMapper;
+        this.roleMapper = roleMapper;
+        this.permissionMapper = permissionMapper;
+        this.mode = mode;
+        this.fastPath = fastPath;
+        this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        this.maxCandidates = maxCandidates;
+        this.stopwords = Arrays.stream(stopwords)
+                .map(stopword -> stopword.trim().toLowerCase(Locale.ROOT))
+                .filter(stopword -> !stopword.isEmpty() && stopword.length() <= NGRAM_TOKEN_SIZE)
+                .toList();
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("关键词搜索方式: mode={}, fastPath={}", mode, fastPath);
+        if (mode != SearchMode.MEMORY) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "keyword-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 首次构建完成前查询回退到 LIKE，不阻塞启动
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 生成搜索条件
+     *
+     * @param target  搜索的表
+     * @param keyword 关键词
+     * @return 搜索条件，关键词为空时返回 null
+     */
+    public KeywordSearch resolve(SearchTarget target, String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            return null;
+        }
+        if (fastPath && target == SearchTarget.USER) {
+            KeywordSearch.MatchType matchType = classify(keyword);
+            if (matchType != KeywordSearch.MatchType.TEXT) {
+                return KeywordSearch.of(keyword, matchType);
+            }
+        }
+        return switch (mode) {
+            case FULLTEXT -> {
+                String booleanQuery = toBooleanQuery(keyword, stopwords);
+                yield booleanQuery == null ? KeywordSearch.like(keyword) : KeywordSearch.fulltext(keyword, booleanQuery);
+            }
+            case MEMORY -> {
+                InMemoryKeywordIndex index = indexes.get(target);
+                long[] ids = index == null ? null : index.candidates(keyword, maxCandidates);
+                yield ids == null
+                        ? KeywordSearch.like(keyword)
+                        : KeywordSearch.memory(keyword, Arrays.stream(ids).boxed().toList(), index.getIndexedSince());
+            }
+            case LIKE -> KeywordSearch.like(keyword);
+        };
+    }
+
+    /**
+     * 从数据库重建所有倒排索引
+     */
+    public void rebuild() {
+        for (SearchTarget target : SearchTarget.values()) {
+            LocalDateTime indexedSince = LocalDateTime.now().minus(INDEX_LAG_MARGIN);
+            InMemoryKeywordIndex.Builder builder = InMemoryKeywordIndex.builder(indexedSince);
+            switch (target) {
+                case USER -> addUsers(builder, userMapper.selectSearchDocuments());
+                case ROLE -> addRoles(builder, roleMapper.selectSearchDocuments());
+                case PERMISSION -> addPermissions(builder, permissionMapper.selectSearchDocuments());
+            }
+            InMemoryKeywordIndex index = builder.build();
+            indexes.put(target, index);
+            log.info("关键词倒排索引已重建: table={}, rows={}", target.getTableName(), index.getDocumentCount());
+        }
+        lastRebuild = System.nanoTime();
+    }
+
+    /**
+     * 把上次读取后更新过的行合并进倒排索引
+     */
+    public void refresh() {
+        for (SearchTarget target : SearchTarget.values()) {
+            InMemoryKeywordIndex current = indexes.get(target);
+            LocalDateTime since = current.getIndexedSince();
+            InMemoryKeywordIndex.Builder builder = InMemoryKeywordIndex.builder(LocalDateTime.now().minus(INDEX_LAG_MARGIN));
+            switch (target) {
+                case USER -> addUsers(builder, userMapper.selectSearchDocumentsUpdatedSince(since));
+                case ROLE -> addRoles(builder, roleMapper.selectSearchDocumentsUpdatedSince(since));
+                case PERMISSION -> addPermissions(builder, permissionMapper.selectSearchDocumentsUpdatedSince(since));
+            }
+            InMemoryKeywordIndex changes = builder.build();
+            indexes.put(target, current.merge(changes));
+            log.debug("关键词倒排索引已合并增量: table={}, rows={}", target.getTableName(), changes.getDocumentCount());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            if (indexes.size() < SearchTarget.values().length
+                    || System.nanoTime() - lastRebuild >= TimeUnit.SECONDS.toNanos(rebuildIntervalSeconds)) {
+                rebuild();
+            } else {
+                refresh();
+            }
+        } catch (Exception e) {
+            log.error("更新关键词倒排索引失败，继续使用旧索引: {}", e.getMessage());
+        }
+    }
+
+    private static void addUsers(InMemoryKeywordIndex.Builder builder, List<User> users) {
+        users.forEach(user ->
+                builder.add(user.getId(), user.getUsername(), user.getRealName(), user.getPhone(), user.getEmail()));
+    }
+
+    private static void addRoles(InMemoryKeywordIndex.Builder builder, List<Role> roles) {
+        roles.forEach(role -> builder.add(role.getId(), role.getRoleName(), role.getDescription()));
+    }
+
+    private static void addPermissions(InMemoryKeywordIndex.Builder builder, List<Permission> permissions) {
+        permissions.forEach(permission -> builder.add(permission.getId(), permission.getPermissionCode(),
+                permission.getPermissionName(), permission.getDescription()));
+    }
+
+    static KeywordSearch.MatchType classify(String keyword) {
+        if (FULL_PHONE.matcher(keyword).matches()) {
+            return KeywordSearch.MatchType.PHONE_EXACT;
+        }
+        if (PHONE_PREFIX.matcher(keyword).matches()) {
+            return KeywordSearch.MatchType.PHONE_PREFIX;
+        }
+        if (FULL_EMAIL.matcher(keyword).matches()) {
+            return KeywordSearch.MatchType.EMAIL_EXACT;
+        }
+        if (keyword.indexOf('@') > 0) {
+            return KeywordSearch.MatchType.EMAIL_PREFIX;
+        }
+        return KeywordSearch.MatchType.TEXT;
+    }
+
+    /**
+     * 转为 BOOLEAN MODE 短语查询；全文索引可能漏查时返回 null，由调用方回退为 LIKE：
+     * 关键词过短、包含空白（ngram 不生成跨空白的分词）、包含 LIKE 通配符或双引号（与 LIKE 的语义不同），
+     * 或某个分词包含停用词（ngram 会丢弃该分词）
+     */
+    static String toBooleanQuery(String keyword, List<String> stopwords) {
+        if (keyword.length() < NGRAM_TOKEN_SIZE) {
+            return null;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (Character.isWhitespace(c) || c == '"' || c == '%' || c == '_') {
+                return null;
+            }
+        }
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + NGRAM_TOKEN_SIZE <= lower.length(); i++) {
+            String token = lower.substring(i, i + NGRAM_TOKEN_SIZE);
+            for (String stopword : stopwords) {
+                if (token.contains(stopword)) {
+                    return null;
+                }
+            }
+        }
+        return '"' + keyword + '"';
+    }
+
+    public SearchMode getMode() {
+        return mode;
+    }
+}
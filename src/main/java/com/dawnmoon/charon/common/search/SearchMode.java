@@ -0,0 +1,44 @@
+package com.dawnmoon.charon.common.search;
+
+import com.dawnmoon.charon.common.enums.BaseEnum;
+import lombok.Getter;
+
+/**
+ * 关键词搜索方式
+ */
+@Getter
+public enum SearchMode implements BaseEnum<String> {
+
+    /**
+     * 模糊匹配：LIKE '%关键词%'（PostgreSQL 建有 pg_trgm GIN 索引时由索引命中）
+     */
+    LIKE("LIKE", "模糊匹配"),
+
+    /**
+     * 全文索引：MySQL 使用 ngram FULLTEXT 索引，PostgreSQL 使用 pg_trgm GIN 索引
+     */
+    FULLTEXT("FULLTEXT", "全文索引"),
+
+    /**
+     * 进程内倒排索引：先在内存中得到候选ID，再由数据库按主键过滤
+     */
+    MEMORY("MEMORY", "进程内倒排索引");
+
+    private final String code;
+    private final String description;
+
+    SearchMode(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
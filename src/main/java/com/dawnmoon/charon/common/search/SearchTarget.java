@@ -0,0 +1,20 @@
+package com.dawnmoon.charon.common.search;
+
+import lombok.Getter;
+
+/**
+ * 支持关键词搜索的表
+ */
+@Getter
+public enum SearchTarget {
+
+    USER("sys_user"),
+    ROLE("sys_role"),
+    PERMISSION("sys_permission");
+
+    private final String tableName;
+
+    SearchTarget(String tableName) {
+        this.tableName = tableName;
+    }
+}
@@ -0,0 +1,212 @@
+package com.dawnmoon.charon.common.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 认证缓存失效总线
+ * 通过 Redis Pub/Sub 在集群节点之间广播 Token、用户、角色、权限级别的失效事件
+ *
+ * <p>事件先在本节点合并，在合并窗口结束时作为一条消息发送，
+ * 因此一次角色变更涉及的 N 个用户只会产生一条广播消息</p>
+ * <p>本节点的本地缓存由调用方直接失效，收到自己发出的消息时忽略</p>
+ * <p>收到的消息交给单独的分发线程，按到达顺序逐条执行监听器（顺序见 {@link AuthCacheInvalidationListener}），
+ * 角色权限图、权限注册表的数据库刷新不占用 Redis Pub/Sub 的订阅线程</p>
+ */
+@Slf4j
+@Component
+public class AuthCacheInvalidationBus implements MessageListener {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectProvider<AuthCacheInvalidationListener> listeners;
+
+    /**
+     * 当前节点ID
+     */
+    private final String nodeId = UUID.randomUUID().toString().replace("-", "");
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "auth-cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 监听器分发线程：单线程，保证消息按到达顺序处理
+     */
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "auth-cache-invalidation-listener");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+
+    /**
+     * 合并窗口内待发送的消息
+     */
+    private AuthCacheInvalidationMessage pending;
+
+    @Value("${app.security.cache-invalidation.channel:auth_cache_invalidation}")
+    private String channel;
+
+    @Value("${app.security.cache-invalidation.coalesce-window-ms:50}")
+    private long coalesceWindowMs;
+
+    public AuthCacheInvalidationBus(RedisTemplate<String, Object> redisTemplate,
+                                    RedisMessageListenerContainer listenerContainer,
+                                    ObjectProvider<AuthCacheInvalidationListener> listeners) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        log.info("认证缓存失效总线已订阅: channel={}, nodeId={}", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+        scheduler.shutdown();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * 广播 Token 失效
+     */
+    public void publishToken(String token) {
+        if (token != null) {
+            enqueue(message -> message.getTokens().add(token));
+        }
+    }
+
+    /**
+     * 广播用户失效
+     */
+    public void publishUser(Long userId) {
+        if (userId != null) {
+            enqueue(message -> message.getUserIds().add(userId));
+        }
+    }
+
+    /**
+     * 批量广播用户失效
+     */
+    public void publishUsers(Collection<Long> userIds) {
+        if (userIds != null && !userIds.isEmpty()) {
+            enqueue(message -> message.getUserIds().addAll(userIds));
+        }
+    }
+
+    /**
+     * 广播角色变更
+     */
+    public void publishRole(Long roleId) {
+        if (roleId != null) {
+            enqueue(message -> message.getRoleIds().add(roleId));
+        }
+    }
+
+    /**
+     * 广播权限变更
+     */
+    public void publishPermission(Long permissionId) {
+        if (permissionId != null) {
+            enqueue(message -> message.getPermissionIds().add(permissionId));
+        }
+    }
+
+    /**
+     * 将事件合并到待发送消息中，窗口内第一个事件负责调度发送
+     */
+    private void enqueue(Consumer<AuthCacheInvalidationMessage> mutator) {
+        boolean schedule = false;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new AuthCacheInvalidationMessage(nodeId);
+                schedule = true;
+            }
+            mutator.accept(pending);
+        }
+        if (schedule) {
+            scheduler.schedule(this::flush, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 发送合并后的消息
+     */
+    private void flush() {
+        AuthCacheInvalidationMessage message;
+        synchronized (lock) {
+            message = pending;
+            pending = null;
+        }
+        if (message == null || message.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, message);
+            log.debug("广播认证缓存失效消息: tokens={}, userIds={}, roleIds={}, permissionIds={}",
+                    message.getTokens().size(), message.getUserIds().size(),
+                    message.getRoleIds().size(), message.getPermissionIds().size());
+        } catch (Exception e) {
+            log.error("广播认证缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof AuthCacheInvalidationMessage invalidation)) {
+                return;
+            }
+            if (nodeId.equals(invalidation.getSourceId())) {
+                return;
+            }
+            dispatcher.execute(() -> dispatch(invalidation));
+        } catch (Exception e) {
+            log.error("处理认证缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按顺序执行监听器，单个监听器失败不影响后续监听器
+     */
+    private void dispatch(AuthCacheInvalidationMessage invalidation) {
+        List<AuthCacheInvalidationListener> targets = listeners.orderedStream().toList();
+        for (AuthCacheInvalidationListener listener : targets) {
+            try {
+                listener.onInvalidation(invalidation);
+            } catch (Exception e) {
+                log.error("处理认证缓存失效消息失败: listener={}, error={}",
+                        listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        log.debug("收到认证缓存失效消息: sourceId={}, userIds={}",
+                invalidation.getSourceId(), invalidation.getUserIds().size());
+    }
+}
@@ -0,0 +1,38 @@
+package com.dawnmoon.charon.common.security;
+
+/**
+ * 认证缓存失效监听器
+ * 持有节点本地认证缓存的组件实现该接口，接收其他节点广播的失效事件
+ *
+ * <p>监听器按 {@code @Order} 顺序在 {@link AuthCacheInvalidationBus} 的分发线程上执行：
+ * 先刷新角色权限图和权限注册表，再清除依赖它们的角色权限集和 Token 缓存，清除后重新加载时读到的是新数据</p>
+ */
+public interface AuthCacheInvalidationListener {
+
+    /**
+     * 角色权限图
+     */
+    int ORDER_RBAC_GRAPH = 0;
+
+    /**
+     * 权限注册表
+     */
+    int ORDER_PERMISSION_REGISTRY = 10;
+
+    /**
+     * 角色权限集缓存
+     */
+    int ORDER_ROLE_GRANT = 20;
+
+    /**
+     * Token 本地缓存
+     */
+    int ORDER_TOKEN_CACHE = 30;
+
+    /**
+     * 处理失效事件
+     *
+     * @param message 合并后的失效消息
+     */
+    void onInvalidation(AuthCacheInvalidationMessage message);
+}
@@ -0,0 +1,59 @@
+package com.dawnmoon.charon.common.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 认证缓存失效消息
+ * 在集群节点之间广播，一条消息可合并多个 Token、用户、角色、权限级别的失效事件
+ */
+@Data
+@NoArgsConstructor
+public class AuthCacheInvalidationMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发送节点ID，用于忽略本节点发出的消息
+     */
+    private String sourceId;
+
+    /**
+     * 失效的 Token
+     */
+    private Set<String> tokens = new HashSet<>();
+
+    /**
+     * 失效的用户ID
+     */
+    private Set<Long> userIds = new HashSet<>();
+
+    /**
+     * 发生变更的角色ID
+     */
+    private Set<Long> roleIds = new HashSet<>();
+
+    /**
+     * 发生变更的权限ID
+     */
+    private Set<Long> permissionIds = new HashSet<>();
+
+    public AuthCacheInvalidationMessage(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    /**
+     * 消息是否不包含任何事件（不参与序列化，否则接收方反序列化时会因未知字段 empty 失败）
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return tokens.isEmpty() && userIds.isEmpty() && roleIds.isEmpty() && permissionIds.isEmpty();
+    }
+}
@@ -8,7 +8,6 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,21 +16,31 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 /**
  * JWT 认证过滤器
- * 从请求头中获取 Token，从 Redis 中查找用户信息，设置到 SecurityContext
+ * 从请求头中获取 Token，先查本地缓存，未命中再从 Redis 中查找用户信息，设置到 SecurityContext
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final TokenStore tokenStore;
+    private final TokenLocalCache tokenLocalCache;
+    private final RoleGrantStore roleGrantStore;
 
-    @Value("${app.security.token.prefix:token:}")
-    private String tokenPrefix;
+    /**
+     * 剩余时间少于该值（秒）时刷新过期时间
+     */
+    @Value("${app.security.token.refresh-threshold:3600}")
+    private long refreshThresholdSeconds;
+
+    /**
+     * 刷新后的过期时间（秒）
+     */
+    @Value("${app.security.token.refresh-ttl:86400}")
+    private long refreshTtlSeconds;
 
     private static final String TOKEN_HEADER = "Authorization";
     private static final String TOKEN_PREFIX_BEARER = "Bearer ";
@@ -46,12 +55,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (StringUtils.hasText(token)) {
             try {
-                // 2. 从 Redis 获取用户信息
-                String redisKey = tokenPrefix + token;
-                UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue().get(redisKey);
+                // 2. 先查本地缓存，未命中再从 Redis 获取用户信息
+                UserPrincipal userPrincipal = tokenLocalCache.get(token);
+                if (userPrincipal == null) {
+                    userPrincipal = tokenStore.getPrincipal(token);
+                    if (userPrincipal != null) {
+                        tokenLocalCache.put(token, userPrincipal);
+                    }
+                }
 
                 if (userPrincipal != null) {
-                    // 3. 创建认证对象
+                    // 3. 按角色权限集填充角色名称和权限（本地缓存未变化时不做任何操作），创建认证对象
+                    roleGrantStore.hydrate(userPrincipal);
                     UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                             userPrincipal,
@@ -64,10 +79,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
 
                     // 5. 刷新 Token 过期时间（滑动过期）
-                    Long ttl = redisTemplate.getExpire(redisKey, TimeUnit.SECONDS);
-                    if (ttl != null && ttl > 0 && ttl < 3600) { // 如果剩余时间少于1小时，刷新过期时间
-                        redisTemplate.expire(redisKey, 24, TimeUnit.HOURS);
-                    }
+                    refreshExpirationIfNeeded(token, userPrincipal);
                     log.debug("用户 [username={}, id={}] 发起请求", userPrincipal.getUsername(), userPrincipal.getUserId());
                 }
             } catch (Exception e) {
@@ -78,6 +90,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 滑动续期
+     * 根据 UserPrincipal 中记录的过期时间在本地判断，只有进入刷新窗口时才访问 Redis
+     *
+     * <p>续期时 Redis 中的 UserPrincipal 一并记录新的过期时间，其他节点本地缓存未命中时读到的是续期后的值，不会重复续期；
+     * 用户信息被并发改写（如权限同步）时只续期不覆盖，之后的一次缓存未命中会再续期一次</p>
+     */
+    private void refreshExpirationIfNeeded(String token, UserPrincipal userPrincipal) {
+        long now = System.currentTimeMillis();
+        Long expireAt = userPrincipal.getExpireAt();
+
+        if (expireAt == null) {
+            // 兼容旧数据：没有记录过期时间时读取一次剩余时间
+            Long ttl = tokenStore.getExpire(token);
+            if (ttl == null || ttl <= 0) {
+                return;
+            }
+            expireAt = now + ttl * 1000;
+            userPrincipal.setExpireAt(expireAt);
+        }
+
+        if (expireAt - now < refreshThresholdSeconds * 1000) {
+            tokenStore.refresh(token, userPrincipal, refreshTtlSeconds);
+        }
+    }
+
     /**
      * 从请求头获取 Token
      */
@@ -0,0 +1,172 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.common.enums.ErrorCode;
+import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希执行器
+ * 密码哈希（{@link PasswordHashService}）在专用的有界线程池中执行，CPU 密集的登录洪峰最多占用固定数量的核心，不会拖垮其他接口
+ *
+ * <p>准入控制：线程和等待队列都满时立即拒绝（HTTP 429），不排队等待；
+ * 已入队的任务超过 app.security.password-hash.timeout-ms 仍未完成时取消并同样返回 429，
+ * 因此同时阻塞在这里的请求线程最多为 线程数 + 队列容量</p>
+ * <p>取消只对还在排队的任务有效（移出队列，不再计算）；BCrypt / Argon2 计算过程不响应中断，
+ * 已开始计算的任务会继续运行到结束，期间占用的哈希线程不会因超时释放，超时返回 429 只是不再等待结果</p>
+ * <p>指标：password.hash（计算耗时，按 operation 区分）、password.hash.queue.wait（排队耗时）、
+ * password.hash.queue.depth / password.hash.active（队列深度 / 执行中的任务数）、password.hash.rejected（拒绝次数）</p>
+ */
+@Slf4j
+@Component
+public class PasswordHashExecutor {
+
+    private final PasswordHashService passwordHashService;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashExecutor(PasswordHashService passwordHashService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.security.password-hash.threads:2}") int threads,
+                                @Value("${app.security.password-hash.queue-capacity:32}") int queueCapacity,
+                                @Value("${app.security.password-hash.timeout-ms:3000}") long timeoutMs) {
+        this.passwordHashService = passwordHashService;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 队列满时拒绝，由调用方快速返回 429，避免请求线程堆积
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.matchesTimer = Timer.builder("password.hash")
+                .description("密码哈希计算耗时")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hash")
+                .description("密码哈希计算耗时")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("密码哈希任务排队耗时")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("因线程池已满或超时被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 密码哈希
+     * @return 是否匹配
+     * @throws TooManyRequestsException 线程池已满或等待超时
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordHashService.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 计算密码哈希
+     *
+     * @param rawPassword 明文密码
+     * @return 密码哈希
+     * @throws TooManyRequestsException 线程池已满或等待超时
+     */
+    public String encode(String rawPassword) {
+        return execute(encodeTimer, () -> passwordHashService.encode(rawPassword));
+    }
+
+    /**
+     * 哈希是否需要按当前算法和参数重新计算（只解析哈希值，直接在调用线程执行）
+     *
+     * @param encodedPassword 密码哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordHashService.needsRehash(encodedPassword);
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                started.set(true);
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希线程池已满，拒绝请求: active={}, queued={}",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new TooManyRequestsException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejectedCounter.increment();
+            if (started.get()) {
+                // 哈希计算不响应中断，线程要到计算结束才空闲
+                log.warn("密码哈希计算超时，拒绝请求，计算仍在继续: timeout={}ms, active={}",
+                        timeoutMs, executor.getActiveCount());
+            } else {
+                // 已取消的任务仍留在队列中，移除后才能腾出队列容量
+                executor.purge();
+                log.warn("密码哈希排队超时，拒绝请求: timeout={}ms, queued={}", timeoutMs, executor.getQueue().size());
+            }
+            throw new TooManyRequestsException();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, "密码校验被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密码哈希计算失败", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.dawnmoon.charon.common.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 密码哈希服务
+ * 哈希值带算法前缀（{bcrypt}$2a$12$...、{argon2}$argon2id$v=19$m=...），算法参数随哈希值一起保存，
+ * 调整算法或参数后，旧哈希在下次登录成功时透明地重新计算（见 {@link #needsRehash(String)}）
+ *
+ * <p>BCrypt 强度为 0 时在启动时按目标耗时自动校准：测量最低强度的耗时，强度每加 1 耗时翻倍，
+ * 取不超过目标耗时的最大强度，使每个部署的登录 CPU 开销可预期</p>
+ * <p>Argon2（BouncyCastle 实现）的校验开销主要由内存决定，可用内存换取更低的 CPU 占用</p>
+ * <p>没有前缀的哈希是升级前写入的 BCrypt，仍可校验，并会在登录时升级为带前缀的格式</p>
+ */
+@Slf4j
+@Component
+public class PasswordHashService {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
+    private final DelegatingPasswordEncoder encoder;
+    private final String algorithm;
+    private final int bcryptStrength;
+
+    public PasswordHashService(@Value("${app.security.password.algorithm:bcrypt}") String algorithm,
+                               @Value("${app.security.password.bcrypt.strength:0}") int bcryptStrength,
+                               @Value("${app.security.password.bcrypt.target-ms:250}") long bcryptTargetMs,
+                               @Value("${app.security.password.bcrypt.min-strength:10}") int bcryptMinStrength,
+                               @Value("${app.security.password.bcrypt.max-strength:14}") int bcryptMaxStrength,
+                               @Value("${app.security.password.argon2.memory-kb:19456}") int argon2MemoryKb,
+                               @Value("${app.security.password.argon2.iterations:2}") int argon2Iterations,
+                               @Value("${app.security.password.argon2.parallelism:1}") int argon2Parallelism) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("不支持的密码哈希算法: " + algorithm);
+        }
+        this.algorithm = algorithm;
+        this.bcryptStrength = bcryptStrength > 0
+                ? bcryptStrength
+                : calibrateBcrypt(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(this.bcryptStrength));
+        encoders.put(ARGON2, new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations));
+        this.encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // 升级前写入的哈希没有前缀，按 BCrypt 校验（强度从哈希值中读取）
+        this.encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        if (ARGON2.equals(algorithm)) {
+            log.info("密码哈希算法: argon2id, memory={}KB, iterations={}, parallelism={}",
+                    argon2MemoryKb, argon2Iterations, argon2Parallelism);
+        } else {
+            log.info("密码哈希算法: bcrypt, strength={}", this.bcryptStrength);
+        }
+    }
+
+    /**
+     * 计算密码哈希（带算法前缀）
+     *
+     * @param rawPassword 明文密码
+     * @return 密码哈希
+     */
+    public String encode(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * 校验密码，支持所有已配置的算法及升级前的无前缀 BCrypt
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 密码哈希
+     * @return 是否匹配
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        return encoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 哈希是否需要按当前算法和参数重新计算（算法不同、没有前缀或参数弱于当前配置）
+     * 只解析哈希值，不做哈希计算
+     *
+     * @param encodedPassword 密码哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 当前算法
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 当前 BCrypt 强度
+     */
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    /**
+     * 按目标耗时校准 BCrypt 强度
+     * 取两次测量中较快的一次（第一次包含类加载和 JIT 预热）
+     */
+    private static int calibrateBcrypt(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double measuredMs = Math.max(best / 1_000_000.0, 0.001);
+
+        int strength = minStrength;
+        while (strength < maxStrength && measuredMs * 2 <= targetMs) {
+            measuredMs *= 2;
+            strength++;
+        }
+        log.info("BCrypt 强度校准完成: target={}ms, strength={}, estimated={}ms", targetMs, strength, Math.round(measuredMs));
+        return strength;
+    }
+}
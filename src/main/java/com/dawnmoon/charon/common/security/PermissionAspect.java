@@ -9,15 +9,28 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 权限检查切面
  * 拦截 @RequirePermission 注解，进行权限校验
  * 支持重复注解，多个注解之间是AND关系
+ *
+ * <p>启动时扫描所有 Controller 方法，将权限注解预解析为不可变的检查计划；
+ * 引用了 sys_permission 中不存在的权限编码时启动失败（可通过 app.security.permission.fail-on-unknown 关闭）</p>
  */
 @Aspect
 @Component
@@ -26,6 +39,74 @@ import java.util.Arrays;
 public class PermissionAspect {
 
     private final PermissionCheckService permissionCheckService;
+    private final PermissionRegistry permissionRegistry;
+    private final ApplicationContext applicationContext;
+
+    /**
+     * 方法 → 检查计划
+     */
+    private final Map<Method, Plan> plans = new ConcurrentHashMap<>();
+
+    @Value("${app.security.permission.fail-on-unknown:true}")
+    private boolean failOnUnknown;
+
+    /**
+     * 单个 @RequirePermission 注解的检查项
+     *
+     * @param codes       所需权限编码
+     * @param logical     权限逻辑
+     * @param description 日志用描述
+     */
+    private record Requirement(String[] codes, LogicType logical, String description) {
+    }
+
+    /**
+     * 方法的权限检查计划（不可变），注册表版本变化后整体替换
+     *
+     * @param requirements 各注解检查项（与注解顺序一致）
+     * @param masks        各注解编译后的权限位图
+     * @param methodName   日志用方法名
+     */
+    private record Plan(Requirement[] requirements, PermissionMask[] masks, String methodName) {
+
+        long version() {
+            return masks.length == 0 ? 0 : masks[0].getVersion();
+        }
+    }
+
+    /**
+     * 启动时扫描所有 Controller 方法并预解析权限检查计划
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void scanHandlerMethods() {
+        Set<String> unknownCodes = new LinkedHashSet<>();
+        for (RequestMappingHandlerMapping mapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                Method method = handlerMethod.getMethod();
+                if (method.getAnnotationsByType(RequirePermission.class).length == 0) {
+                    continue;
+                }
+                Plan plan = plans.computeIfAbsent(method, this::buildPlan);
+                if (permissionRegistry.isLoaded()) {
+                    for (Requirement requirement : plan.requirements()) {
+                        for (String code : requirement.codes()) {
+                            if (!permissionRegistry.contains(code)) {
+                                unknownCodes.add(code + " (" + plan.methodName() + ")");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        if (!unknownCodes.isEmpty()) {
+            if (failOnUnknown) {
+                throw new IllegalStateException("权限注解引用了不存在的权限编码: " + unknownCodes);
+            }
+            log.warn("权限注解引用了不存在的权限编码: {}", unknownCodes);
+        }
+        log.info("权限注解扫描完成: methodCount={}", plans.size());
+    }
 
     /**
      * 环绕通知：拦截 @RequirePermission 和 @RequirePermissions 注解的方法
@@ -37,45 +118,80 @@ public class PermissionAspect {
     @Around("@annotation(com.dawnmoon.charon.common.security.RequirePermission) || " +
             "@annotation(com.dawnmoon.charon.common.security.RequirePermissions)")
     public Object checkPermission(ProceedingJoinPoint joinPoint) throws Throwable {
-        // 1. 获取当前用户ID
-        Long userId = SecurityUtil.getCurrentUserId();
-        if (userId == null) {
+        // 1. 获取当前用户（认证过滤器已放入 SecurityContext，无需再查 Redis）
+        UserPrincipal userPrincipal = SecurityUtil.getCurrentPrincipal();
+        if (userPrincipal == null || userPrincipal.getUserId() == null) {
             log.warn("未登录用户尝试访问需要权限的接口: method={}",
                     joinPoint.getSignature().toShortString());
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
+        Long userId = userPrincipal.getUserId();
 
-        // 2. 获取方法上的所有权限注解
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
+        // 2. 获取方法的检查计划（启动时未扫描到的方法首次访问时解析）
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Plan plan = currentPlan(method);
+        Requirement[] requirements = plan.requirements();
 
-        // 获取重复注解（如果使用@Repeatable，会自动处理为数组）
-        RequirePermission[] permissions = method.getAnnotationsByType(RequirePermission.class);
-
-        if (permissions.length == 0) {
+        if (requirements.length == 0) {
             // 如果方法上没有注解，执行方法
             return joinPoint.proceed();
         }
 
         // 3. 检查所有权限注解（多个注解之间是AND关系）
-        for (RequirePermission permission : permissions) {
-            String[] requiredPermissions = permission.value();
-            LogicType logical = permission.logical();
-
-            // 检查单个注解的权限
-            boolean hasPermission = permissionCheckService.checkPermission(userId, requiredPermissions, logical);
+        for (int i = 0; i < requirements.length; i++) {
+            Requirement requirement = requirements[i];
+            boolean hasPermission = permissionCheckService.checkPermission(
+                    userPrincipal, plan.masks()[i], requirement.logical());
 
             if (!hasPermission) {
-                log.warn("权限不足: userId={}, requiredPermissions={}, logical={}, method={}",
-                        userId, Arrays.toString(requiredPermissions), logical, joinPoint.getSignature().toShortString());
+                log.warn("权限不足: userId={}, {}, method={}", userId, requirement.description(), plan.methodName());
                 throw new BusinessException(ErrorCode.FORBIDDEN);
             }
         }
 
         // 4. 所有权限检查通过，执行方法
         log.debug("权限检查通过: userId={}, permissionCount={}, method={}",
-                userId, permissions.length, joinPoint.getSignature().toShortString());
+                userId, requirements.length, plan.methodName());
         return joinPoint.proceed();
     }
-}
 
+    /**
+     * 获取与当前注册表版本一致的检查计划
+     */
+    private Plan currentPlan(Method method) {
+        Plan plan = plans.computeIfAbsent(method, this::buildPlan);
+        if (plan.version() != permissionRegistry.version()) {
+            plan = recompile(plan);
+            plans.put(method, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 解析方法上的权限注解
+     */
+    private Plan buildPlan(Method method) {
+        RequirePermission[] annotations = method.getAnnotationsByType(RequirePermission.class);
+        Requirement[] requirements = new Requirement[annotations.length];
+        for (int i = 0; i < annotations.length; i++) {
+            RequirePermission annotation = annotations[i];
+            String[] codes = annotation.value().clone();
+            requirements[i] = new Requirement(codes, annotation.logical(),
+                    "requiredPermissions=" + Arrays.toString(codes) + ", logical=" + annotation.logical());
+        }
+        String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName() + "(..)";
+        return recompile(new Plan(requirements, new PermissionMask[0], methodName));
+    }
+
+    /**
+     * 按当前注册表重新编译检查计划的权限位图
+     */
+    private Plan recompile(Plan plan) {
+        Requirement[] requirements = plan.requirements();
+        PermissionMask[] masks = new PermissionMask[requirements.length];
+        for (int i = 0; i < requirements.length; i++) {
+            masks[i] = permissionCheckService.compile(requirements[i].codes());
+        }
+        return new Plan(requirements, masks, plan.methodName());
+    }
+}
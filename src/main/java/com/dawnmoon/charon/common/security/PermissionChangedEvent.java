@@ -0,0 +1,47 @@
+package com.dawnmoon.charon.common.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 权限变更事件
+ * 用户角色或角色权限变更后在事务内发布，事务提交后由 {@link PermissionPropagationListener} 异步同步到 Redis
+ *
+ * <p>userId 和 roleId 只会设置其一；同步失败的事件会原样写入死信队列，便于重放</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionChangedEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 角色发生变更的用户ID
+     */
+    private Long userId;
+
+    /**
+     * 权限发生变更的角色ID
+     */
+    private Long roleId;
+
+    /**
+     * 用户角色变更
+     */
+    public static PermissionChangedEvent ofUser(Long userId) {
+        return new PermissionChangedEvent(userId, null);
+    }
+
+    /**
+     * 角色权限变更
+     */
+    public static PermissionChangedEvent ofRole(Long roleId) {
+        return new PermissionChangedEvent(null, roleId);
+    }
+}
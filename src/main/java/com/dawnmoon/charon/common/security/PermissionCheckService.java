@@ -1,41 +1,29 @@
 package com.dawnmoon.charon.common.security;
 
-import com.dawnmoon.charon.mapper.PermissionMapper;
-import com.dawnmoon.charon.mapper.RoleMapper;
-import com.dawnmoon.charon.mapper.UserRoleMapper;
-import com.dawnmoon.charon.model.entity.Permission;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * 权限检查服务
  * 负责检查用户是否拥有特定权限
- * 权限信息从Redis中的UserPrincipal获取，不再单独缓存
+ * 权限信息优先从已认证的UserPrincipal获取，其次从Redis中的UserPrincipal获取，
+ * UserPrincipal 中的权限由 {@link RoleGrantStore} 按角色权限集填充
+ * 用户拥有模块通配编码（如 USER:*）时视为拥有该模块下的所有权限
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PermissionCheckService {
 
-    /**
-     * 用户ID到Token的映射key前缀
-     */
-    private static final String USER_ID_TO_TOKEN_KEY_PREFIX = "user_id_to_token:";
-    private final PermissionMapper permissionMapper;
-    private final UserRoleMapper userRoleMapper;
-    private final RoleMapper roleMapper;
-    private final RedisTemplate<String, Object> redisTemplate;
-    @Value("${app.security.token.prefix:token:}")
-    private String tokenKeyPrefix;
+    private final TokenStore tokenStore;
+    private final PermissionRegistry permissionRegistry;
+    private final PermissionSyncService permissionSyncService;
+    private final RbacGraph rbacGraph;
+    private final RoleGrantStore roleGrantStore;
 
     /**
      * 检查用户是否拥有权限
@@ -46,23 +34,115 @@ public class PermissionCheckService {
      * @return true-有权限，false-无权限
      */
     public boolean checkPermission(Long userId, String[] requiredPermissions, LogicType logical) {
-        // 1. 从缓存获取用户权限列表
+        // 从缓存获取用户权限列表
         List<String> userPermissions = getUserPermissions(userId);
+        return matches(userId, new PermissionTrie(userPermissions), userPermissions, requiredPermissions, logical);
+    }
+
+    /**
+     * 检查已认证用户是否拥有权限
+     * 直接使用内存中的 UserPrincipal，不访问 Redis
+     *
+     * @param userPrincipal       已认证的用户主体
+     * @param requiredPermissions 所需权限列表
+     * @param logical             权限逻辑（AND/OR）
+     * @return true-有权限，false-无权限
+     */
+    public boolean checkPermission(UserPrincipal userPrincipal, String[] requiredPermissions, LogicType logical) {
+        return checkPermission(userPrincipal, compile(requiredPermissions), logical);
+    }
+
+    /**
+     * 检查已认证用户是否拥有预编译的权限位图
+     * 用户权限位图首次使用时编译并挂在 UserPrincipal 上，注册表版本变化后重新编译
+     * 位图不可比较时（存在注册表外的编码或版本不一致）回退到字符串比较
+     *
+     * @param userPrincipal 已认证的用户主体
+     * @param required      所需权限位图
+     * @param logical       权限逻辑（AND/OR）
+     * @return true-有权限，false-无权限
+     */
+    public boolean checkPermission(UserPrincipal userPrincipal, PermissionMask required, LogicType logical) {
+        Long userId = userPrincipal.getUserId();
+        // 角色权限集变化后重新求并集（setPermissions 会同时清除已编译的位图）
+        roleGrantStore.hydrate(userPrincipal);
+        List<String> userPermissions = userPrincipal.getPermissions();
+        if (userPermissions == null) {
+            List<String> resolved = getUserPermissions(userId);
+            return matches(userId, new PermissionTrie(resolved), resolved, required.getCodes(), logical);
+        }
+
+        PermissionMask granted = grantedMask(userPrincipal, userPermissions);
+        if (!granted.isComparableWith(required)) {
+            return matches(userId, grantedTrie(userPrincipal, userPermissions), userPermissions,
+                    required.getCodes(), logical);
+        }
+
+        boolean result = logical == LogicType.AND ? granted.containsAll(required) : granted.intersects(required);
+        if (log.isDebugEnabled()) {
+            log.debug("权限检查({}): userId={}, required={}, result={}",
+                    logical, userId, Arrays.toString(required.getCodes()), result);
+        }
+        return result;
+    }
+
+    /**
+     * 将所需权限编码编译为位图
+     *
+     * @param requiredPermissions 所需权限编码
+     * @return 权限位图
+     */
+    public PermissionMask compile(String[] requiredPermissions) {
+        return permissionRegistry.compile(requiredPermissions);
+    }
+
+    /**
+     * 获取用户权限位图，注册表版本变化后重新编译
+     */
+    private PermissionMask grantedMask(UserPrincipal userPrincipal, List<String> userPermissions) {
+        PermissionMask granted = userPrincipal.getPermissionMask();
+        if (granted == null || granted.getVersion() != permissionRegistry.version()) {
+            granted = permissionRegistry.compileGranted(userPermissions);
+            userPrincipal.setPermissionMask(granted);
+        }
+        return granted;
+    }
+
+    /**
+     * 获取用户权限前缀树，首次使用时构建并挂在 UserPrincipal 上（权限列表变化时清除）
+     */
+    private PermissionTrie grantedTrie(UserPrincipal userPrincipal, List<String> userPermissions) {
+        PermissionTrie granted = userPrincipal.getPermissionTrie();
+        if (granted == null) {
+            granted = new PermissionTrie(userPermissions);
+            userPrincipal.setPermissionTrie(granted);
+        }
+        return granted;
+    }
 
-        // 2. 判断逻辑
+    /**
+     * 按逻辑类型匹配权限
+     * 每个所需权限在用户权限前缀树中按编码长度匹配（含通配编码）
+     */
+    private boolean matches(Long userId, PermissionTrie granted, List<String> userPermissions,
+                            String[] requiredPermissions, LogicType logical) {
         if (logical == LogicType.AND) {
             // 必须拥有所有权限
             boolean hasAll = Arrays.stream(requiredPermissions)
-                    .allMatch(userPermissions::contains);
-            log.debug("权限检查(AND): userId={}, required={}, userPermissions={}, result={}",
-                    userId, Arrays.toString(requiredPermissions), userPermissions, hasAll);
+                    .allMatch(granted::implies);
+            if (log.isDebugEnabled()) {
+                log.debug("权限检查(AND): userId={}, required={}, userPermissions={}, result={}",
+                        userId, Arrays.toString(requiredPermissions), userPermissions, hasAll);
+            }
             return hasAll;
         } else {
             // 拥有任一权限即可
             boolean hasAny = Arrays.stream(requiredPermissions)
-                    .anyMatch(userPermissions::contains);
-            log.debug("权限检查(OR): userId={}, required={}, userPermissions={}, result={}",
-                    userId, Arrays.toString(requiredPermissions), userPermissions, hasAny);
+                    .anyMatch(granted::implies);
+            if (log.isDebugEnabled()) {
+                log.debug("权限检查(OR): userId={}, required={}, userPermissions={}, result={}",
+                        userId, Arrays.toString(requiredPermissions), userPermissions, hasAny);
+            }
             return hasAny;
         }
     }
@@ -75,105 +155,55 @@ public class PermissionCheckService {
      * @return 权限编码列表
      */
     public List<String> getUserPermissions(Long userId) {
-        // 1. 根据userId查找Token
-        String token = (String) redisTemplate.opsForValue().get(USER_ID_TO_TOKEN_KEY_PREFIX + userId);
-
-        if (token != null) {
-            // 2. 根据Token获取UserPrincipal
-            UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue()
-                    .get(tokenKeyPrefix + token);
-
-            if (userPrincipal != null && userPrincipal.getPermissions() != null) {
-                log.debug("从Redis UserPrincipal获取用户权限: userId={}, permissions={}",
-                        userId, userPrincipal.getPermissions());
-                return userPrincipal.getPermissions();
-            }
+        // 1. 通过 Lua 脚本一次往返完成 userId → Token → UserPrincipal 查找
+        UserPrincipal userPrincipal = getUserPrincipal(userId);
+        if (userPrincipal != null) {
+            roleGrantStore.hydrate(userPrincipal);
         }
 
-        // 3. 如果Redis中没有，从数据库查询（兜底方案）
+        if (userPrincipal != null && userPrincipal.getPermissions() != null) {
+            log.debug("从Redis UserPrincipal获取用户权限: userId={}, permissions={}",
+                    userId, userPrincipal.getPermissions());
+            return userPrincipal.getPermissions();
+        }
+
+        // 2. 如果Redis中没有，查询用户角色关联后从角色权限图展开（兜底方案）
         log.warn("Redis中不存在用户信息，从数据库查询权限: userId={}", userId);
-        List<Permission> permissionList = permissionMapper.selectPermissionsByUserId(userId);
-        List<String> permissions = permissionList.stream()
-                .map(Permission::getPermissionCode)
-                .collect(Collectors.toList());
+        List<String> permissions = rbacGraph.resolveUser(userId).permissions();
 
         log.debug("从数据库获取用户权限: userId={}, permissions={}", userId, permissions);
         return permissions;
     }
 
+    /**
+     * 根据用户ID获取Redis中的UserPrincipal（单次往返）
+     *
+     * @param userId 用户ID
+     * @return 用户主体，未登录时返回 null
+     */
+    public UserPrincipal getUserPrincipal(Long userId) {
+        return tokenStore.getPrincipalByUserId(userId);
+    }
+
     /**
      * 更新Redis中用户的角色和权限信息
-     * 当用户的角色或权限发生变化时调用
+     * 当用户的角色或权限发生变化时调用，覆盖该用户在所有设备上的会话
      *
      * @param userId 用户ID
      */
     public void updateUserRolesAndPermissions(Long userId) {
-        // 1. 根据userId查找Token
-        String token = (String) redisTemplate.opsForValue().get(USER_ID_TO_TOKEN_KEY_PREFIX + userId);
-
-        if (token == null) {
-            log.warn("用户未登录，无需更新Redis缓存: userId={}", userId);
-            return;
-        }
-
-        // 2. 获取当前的UserPrincipal
-        String tokenKey = tokenKeyPrefix + token;
-        UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue().get(tokenKey);
-
-        if (userPrincipal == null) {
-            log.warn("Redis中不存在用户信息: userId={}, token={}", userId, token);
-            return;
-        }
-
-        // 3. 从数据库查询最新的角色和权限
-        List<Long> roleIds = userRoleMapper.selectByUserId(userId).stream()
-                .map(ur -> ur.getRoleId())
-                .collect(Collectors.toList());
-
-        List<String> newRoles = roleIds.isEmpty() ? new ArrayList<>() :
-                roleMapper.selectBatchIds(roleIds).stream()
-                        .map(role -> role.getRoleName())
-                        .collect(Collectors.toList());
-
-        List<String> newPermissions = permissionMapper.selectPermissionsByUserId(userId).stream()
-                .map(Permission::getPermissionCode)
-                .collect(Collectors.toList());
-
-        // 4. 更新UserPrincipal中的角色和权限
-        userPrincipal.setRoles(newRoles);
-        userPrincipal.setPermissions(newPermissions);
-
-        // 5. 获取剩余过期时间
-        Long ttl = redisTemplate.getExpire(tokenKey, TimeUnit.SECONDS);
-        if (ttl == null || ttl <= 0) {
-            ttl = 86400L; // 默认1天
-        }
-
-        // 6. 重新存储到Redis（保持原有的过期时间）
-        redisTemplate.opsForValue().set(tokenKey, userPrincipal, ttl, TimeUnit.SECONDS);
-
-        log.info("更新Redis中用户的角色和权限: userId={}, roles={}, permissions={}, ttl={}s",
-                userId, newRoles, newPermissions, ttl);
+        // 用户可能同时在多个设备登录，由同步服务批量读取并写回其所有会话
+        permissionSyncService.syncUser(userId);
     }
 
     /**
      * 更新角色下所有用户的角色和权限信息
-     * 当角色的权限发生变化时调用
+     * 角色权限变更已由角色权限集覆盖，无需调用；用于手动校正角色下用户的 Token，由专用线程池分批执行
      *
      * @param roleId 角色ID
      */
     public void updateRoleUsersPermissions(Long roleId) {
-        // 查询该角色的所有用户ID
-        List<Long> userIds = userRoleMapper.selectByRoleId(roleId).stream()
-                .map(ur -> ur.getUserId())
-                .collect(Collectors.toList());
-
-        // 更新所有用户的角色和权限
-        for (Long userId : userIds) {
-            updateUserRolesAndPermissions(userId);
-        }
-
-        log.info("更新角色下所有用户的权限: roleId={}, userCount={}", roleId, userIds.size());
+        permissionSyncService.submitRole(roleId);
+        log.info("已提交角色下所有用户的权限同步任务: roleId={}", roleId);
     }
 }
-
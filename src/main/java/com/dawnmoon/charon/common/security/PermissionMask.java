@@ -0,0 +1,77 @@
+package com.dawnmoon.charon.common.security;
+
+/**
+ * 权限位图
+ * 权限编码按 {@link PermissionRegistry} 分配的稠密下标映射为 long[] 位图，AND/OR 检查只需少量按字运算
+ *
+ * <p>位图与生成它的注册表版本绑定，版本不一致时不可直接比较</p>
+ * <p>complete 为 false 表示存在注册表中不认识的权限编码，此时调用方应回退到字符串比较</p>
+ */
+public final class PermissionMask {
+
+    private final long version;
+    private final long[] words;
+    private final boolean complete;
+    private final String[] codes;
+
+    PermissionMask(long version, long[] words, boolean complete, String[] codes) {
+        this.version = version;
+        this.words = words;
+        this.complete = complete;
+        this.codes = codes;
+    }
+
+    /**
+     * 生成位图的注册表版本
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 所有权限编码是否都已在注册表中
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 原始权限编码（用于回退比较和日志）
+     */
+    public String[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * 是否可以与另一个位图直接进行位运算
+     */
+    public boolean isComparableWith(PermissionMask other) {
+        return complete && other.complete && version == other.version;
+    }
+
+    /**
+     * 是否包含 required 中的所有权限（AND）
+     */
+    public boolean containsAll(PermissionMask required) {
+        long[] requiredWords = required.words;
+        for (int i = 0; i < requiredWords.length; i++) {
+            if ((requiredWords[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否包含 required 中的任一权限（OR）
+     */
+    public boolean intersects(PermissionMask required) {
+        long[] requiredWords = required.words;
+        for (int i = 0; i < requiredWords.length; i++) {
+            if ((requiredWords[i] & words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dawnmoon.charon.common.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 权限变更传播监听器
+ * 只在事务提交后把同步任务交给 {@link PermissionSyncService} 的线程池，事务回滚时不会修改 Redis
+ *
+ * <p>不在事务中发布的事件（fallbackExecution）立即提交</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionPropagationListener {
+
+    private final PermissionSyncService permissionSyncService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        log.debug("提交权限同步任务: userId={}, roleId={}", event.getUserId(), event.getRoleId());
+        permissionSyncService.submit(event);
+    }
+}
@@ -0,0 +1,165 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.util.PermissionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 权限编码注册表
+ * 将 sys_permission 中的权限编码映射为稠密整数下标，用于构建 {@link PermissionMask}
+ *
+ * <p>注册表是不可变快照，权限新增、修改、删除后整体重建并递增版本号；
+ * 下标只在本节点内有效，不写入 Redis</p>
+ * <p>编码存放在 {@link PermissionTrie} 中，用户拥有的模块通配编码（如 USER:*）在编译位图时展开为该模块下的所有编码，
+ * 检查时仍是按字的位运算</p>
+ */
+@Slf4j
+@Component
+@Order(AuthCacheInvalidationListener.ORDER_PERMISSION_REGISTRY)
+@RequiredArgsConstructor
+public class PermissionRegistry implements AuthCacheInvalidationListener {
+
+    private final PermissionMapper permissionMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(0, new PermissionTrie(List.of()));
+
+    /**
+     * 注册表快照
+     *
+     * @param version 版本号
+     * @param trie    权限编码 → 下标
+     */
+    private record Snapshot(long version, PermissionTrie trie) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("加载权限编码注册表失败，权限检查将回退到字符串比较: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库重建注册表
+     */
+    public synchronized void refresh() {
+        PermissionTrie trie = new PermissionTrie(permissionMapper.selectAllPermissionCodes());
+        snapshot = new Snapshot(snapshot.version() + 1, trie);
+        log.info("权限编码注册表已重建: version={}, size={}", snapshot.version(), trie.size());
+    }
+
+    /**
+     * 在当前事务提交后重建注册表，不在事务中时立即重建
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * 当前注册表版本
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * 注册表是否已从数据库加载
+     */
+    public boolean isLoaded() {
+        return snapshot.version() > 0;
+    }
+
+    /**
+     * 权限编码是否存在
+     */
+    public boolean contains(String code) {
+        return snapshot.trie().contains(code);
+    }
+
+    /**
+     * 将权限编码编译为位图
+     * 通配编码按字面处理（只设置通配编码自身的位），用于所需权限
+     *
+     * @param codes 权限编码
+     * @return 权限位图
+     */
+    public PermissionMask compile(String[] codes) {
+        Snapshot current = snapshot;
+        PermissionTrie trie = current.trie();
+        long[] words = new long[(trie.size() + 63) >>> 6];
+        boolean complete = true;
+        for (String code : codes) {
+            int bit = trie.indexOf(code);
+            if (bit < 0) {
+                complete = false;
+            } else {
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return new PermissionMask(current.version(), words, complete, codes);
+    }
+
+    /**
+     * 将用户拥有的权限编码编译为位图
+     * 模块通配编码展开为注册表中该模块下的所有编码，未注册的通配编码不影响位图的完整性
+     *
+     * @param codes 用户拥有的权限编码
+     * @return 权限位图
+     */
+    public PermissionMask compileGranted(Collection<String> codes) {
+        Snapshot current = snapshot;
+        PermissionTrie trie = current.trie();
+        long[] words = new long[(trie.size() + 63) >>> 6];
+        boolean complete = true;
+        for (String code : codes) {
+            if (PermissionUtil.isWildcard(code)) {
+                trie.forEachMatch(code, bit -> words[bit >>> 6] |= 1L << bit);
+                continue;
+            }
+            int bit = trie.indexOf(code);
+            if (bit < 0) {
+                complete = false;
+            } else {
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return new PermissionMask(current.version(), words, complete, codes.toArray(new String[0]));
+    }
+
+    /**
+     * 将权限编码编译为位图
+     *
+     * @param codes 权限编码
+     * @return 权限位图
+     */
+    public PermissionMask compile(Collection<String> codes) {
+        return compile(codes.toArray(new String[0]));
+    }
+
+    @Override
+    public void onInvalidation(AuthCacheInvalidationMessage message) {
+        if (!message.getPermissionIds().isEmpty()) {
+            refresh();
+        }
+    }
+}
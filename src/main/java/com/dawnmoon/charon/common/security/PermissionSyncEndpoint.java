@@ -0,0 +1,35 @@
+package com.dawnmoon.charon.common.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 权限同步进度端点
+ * GET /actuator/permissionsync 查看每个角色最近一次的批量同步进度和死信队列长度
+ * POST /actuator/permissionsync 重放死信队列
+ * 虽然 /actuator/** 在白名单中，该端点仍只允许管理员角色访问（见 SecurityConfig）
+ */
+@Component
+@Endpoint(id = "permissionsync")
+@RequiredArgsConstructor
+public class PermissionSyncEndpoint {
+
+    private final PermissionSyncService permissionSyncService;
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Collection<PermissionSyncService.RoleSyncProgress> roles = permissionSyncService.getProgress();
+        return Map.of("roles", roles, "deadLetterSize", permissionSyncService.deadLetterSize());
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay() {
+        return Map.of("replayed", permissionSyncService.replayDeadLetters());
+    }
+}
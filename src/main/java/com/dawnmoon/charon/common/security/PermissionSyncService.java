@@ -0,0 +1,369 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.mapper.UserRoleMapper;
+import com.dawnmoon.charon.model.entity.UserRole;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 权限批量同步服务
+ * 用户角色关联变更后，将最新的角色ID和版本批量写回在线用户的 UserPrincipal
+ *
+ * <p>角色自身的权限变更不经过这里：角色权限集由 {@link RoleGrantStore} 按角色存储，UserPrincipal 无需改写；
+ * 按角色同步只用于手动触发的全量校正（如 /actuator/permissionsync 重放的旧事件）</p>
+ * <p>用户按批处理，每批固定几次往返：MGET 用户→Token、MGET Token→UserPrincipal、
+ * 一次 IN 查询用户角色关联、一次 Pipeline 写回（SET XX KEEPTTL，保留剩余过期时间，需要 Redis 6.0+）</p>
+ * <p>同步在有界线程池中执行，不占用请求线程；同一用户的同步按用户分段锁串行执行；失败时按退避重试，
+ * 重试耗尽或线程池已满时写入 Redis 死信队列，可通过 /actuator/permissionsync 重放；
+ * 死信事件同时完整记录到 ERROR 日志，Redis 不可用时暂存在本节点内存中，重放时一并提交</p>
+ * <p>每个角色最近一次同步的进度可通过 /actuator/permissionsync 查看</p>
+ */
+@Slf4j
+@Service
+public class PermissionSyncService {
+
+    private static final int LOCAL_DEAD_LETTER_CAPACITY = 10_000;
+
+    /**
+     * 用户锁分段数
+     */
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final UserRoleMapper userRoleMapper;
+    private final RoleGrantStore roleGrantStore;
+    private final TokenStore tokenStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final TokenLocalCache tokenLocalCache;
+    private final AuthCacheInvalidationBus authCacheInvalidationBus;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 角色ID → 最近一次同步进度
+     */
+    private final Map<Long, RoleSyncProgress> progress = new ConcurrentHashMap<>();
+
+    /**
+     * 写入 Redis 失败的死信（通常是 Redis 本身不可用），有界，超出时只保留日志
+     */
+    private final BlockingQueue<PermissionChangedEvent> localDeadLetters =
+            new LinkedBlockingQueue<>(LOCAL_DEAD_LETTER_CAPACITY);
+
+    /**
+     * 按用户ID分段的锁：同一用户的读取角色关联和写回会话串行执行，
+     * 后读取的一方一定后写回，避免较慢的任务用旧的角色关联覆盖较新的结果
+     */
+    private final ReentrantLock[] userLocks = new ReentrantLock[USER_LOCK_STRIPES];
+
+    @Value("${app.security.permission-sync.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.security.permission-sync.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.security.permission-sync.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${app.security.permission-sync.dead-letter-key:permission_sync_dead_letter}")
+    private String deadLetterKey;
+
+    public PermissionSyncService(UserRoleMapper userRoleMapper,
+                                 RoleGrantStore roleGrantStore,
+                                 TokenStore tokenStore,
+                                 RedisTemplate<String, Object> redisTemplate,
+                                 TokenLocalCache tokenLocalCache,
+                                 AuthCacheInvalidationBus authCacheInvalidationBus,
+                                 @Value("${app.security.permission-sync.threads:2}") int threads,
+                                 @Value("${app.security.permission-sync.queue-capacity:100}") int queueCapacity) {
+        this.userRoleMapper = userRoleMapper;
+        this.roleGrantStore = roleGrantStore;
+        this.tokenStore = tokenStore;
+        this.redisTemplate = redisTemplate;
+        this.tokenLocalCache = tokenLocalCache;
+        this.authCacheInvalidationBus = authCacheInvalidationBus;
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "permission-sync-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 队列满时拒绝，由调用方写入死信队列，避免阻塞提交事务的请求线程
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 角色同步进度
+     *
+     * @param roleId     角色ID
+     * @param status     状态：RUNNING / DONE / FAILED
+     * @param total      角色下用户总数
+     * @param processed  已处理用户数
+     * @param updated    已写回 Redis 的在线用户数
+     * @param startedAt  开始时间（毫秒时间戳）
+     * @param finishedAt 结束时间（毫秒时间戳），未结束时为 null
+     */
+    public record RoleSyncProgress(Long roleId, String status, int total, int processed, int updated,
+                                   long startedAt, Long finishedAt) {
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交权限同步任务，失败时重试，最终失败写入死信队列
+     *
+     * @param event 权限变更事件
+     */
+    public void submit(PermissionChangedEvent event) {
+        try {
+            executor.execute(() -> runWithRetry(event));
+        } catch (RejectedExecutionException e) {
+            log.error("权限同步线程池已满，写入死信队列: userId={}, roleId={}", event.getUserId(), event.getRoleId());
+            deadLetter(event);
+        }
+    }
+
+    /**
+     * 提交角色下所有用户的权限同步任务
+     *
+     * @param roleId 角色ID
+     */
+    public void submitRole(Long roleId) {
+        submit(PermissionChangedEvent.ofRole(roleId));
+    }
+
+    /**
+     * 重放死信队列中的全部事件
+     *
+     * @return 重放的事件数
+     */
+    public int replayDeadLetters() {
+        int count = 0;
+        PermissionChangedEvent local;
+        while ((local = localDeadLetters.poll()) != null) {
+            submit(local);
+            count++;
+        }
+        Object item;
+        while ((item = redisTemplate.opsForList().rightPop(deadLetterKey)) != null) {
+            if (item instanceof PermissionChangedEvent event) {
+                submit(event);
+                count++;
+            }
+        }
+        log.info("重放权限同步死信: count={}", count);
+        return count;
+    }
+
+    /**
+     * 死信队列长度（Redis 死信队列 + 本节点暂存的死信）
+     */
+    public long deadLetterSize() {
+        Long size = redisTemplate.opsForList().size(deadLetterKey);
+        return (size == null ? 0 : size) + localDeadLetters.size();
+    }
+
+    /**
+     * 按退避重试执行同步
+     */
+    private void runWithRetry(PermissionChangedEvent event) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                if (event.getRoleId() != null) {
+                    syncRole(event.getRoleId());
+                } else if (event.getUserId() != null) {
+                    syncUser(event.getUserId());
+                }
+                return;
+            } catch (Exception e) {
+                log.warn("权限同步失败: userId={}, roleId={}, attempt={}/{}, error={}",
+                        event.getUserId(), event.getRoleId(), attempt, maxAttempts, e.getMessage());
+                if (attempt == maxAttempts) {
+                    break;
+                }
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        deadLetter(event);
+    }
+
+    /**
+     * 写入死信队列
+     * 先完整记录事件：死信多由 Redis 故障引起，写入同一个 Redis 也可能失败，日志是最后的恢复依据
+     */
+    private void deadLetter(PermissionChangedEvent event) {
+        log.error("权限同步任务进入死信队列: event={}", event);
+        try {
+            redisTemplate.opsForList().leftPush(deadLetterKey, event);
+        } catch (Exception e) {
+            if (localDeadLetters.offer(event)) {
+                log.error("写入权限同步死信队列失败，暂存在本节点: event={}, error={}", event, e.getMessage());
+            } else {
+                log.error("写入权限同步死信队列失败且本节点暂存已满，需按日志手动重新同步: event={}, error={}",
+                        event, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取所有角色最近一次的同步进度
+     */
+    public Collection<RoleSyncProgress> getProgress() {
+        return progress.values();
+    }
+
+    /**
+     * 同步角色下所有用户的角色和权限（在当前线程中分批执行）
+     *
+     * @param roleId 角色ID
+     */
+    public void syncRole(Long roleId) {
+        List<Long> userIds = userRoleMapper.selectByRoleId(roleId).stream()
+                .map(UserRole::getUserId)
+                .distinct()
+                .toList();
+
+        long startedAt = System.currentTimeMillis();
+        int total = userIds.size();
+        int processed = 0;
+        int updated = 0;
+        progress.put(roleId, new RoleSyncProgress(roleId, "RUNNING", total, 0, 0, startedAt, null));
+        log.info("开始同步角色下用户的权限: roleId={}, userCount={}, chunkSize={}", roleId, total, chunkSize);
+
+        try {
+            for (int from = 0; from < total; from += chunkSize) {
+                List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, total));
+                updated += syncUsers(chunk);
+                processed += chunk.size();
+                progress.put(roleId, new RoleSyncProgress(roleId, "RUNNING", total, processed, updated, startedAt, null));
+                log.info("同步角色下用户的权限进度: roleId={}, processed={}/{}, updated={}", roleId, processed, total, updated);
+            }
+            authCacheInvalidationBus.publishRole(roleId);
+
+            long finishedAt = System.currentTimeMillis();
+            progress.put(roleId, new RoleSyncProgress(roleId, "DONE", total, processed, updated, startedAt, finishedAt));
+            log.info("同步角色下用户的权限完成: roleId={}, userCount={}, updated={}, cost={}ms",
+                    roleId, total, updated, finishedAt - startedAt);
+        } catch (Exception e) {
+            progress.put(roleId, new RoleSyncProgress(roleId, "FAILED", total, processed, updated,
+                    startedAt, System.currentTimeMillis()));
+            log.error("同步角色下用户的权限失败: roleId={}, processed={}/{}, error={}",
+                    roleId, processed, total, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 同步单个用户的角色和权限
+     *
+     * @param userId 用户ID
+     */
+    public void syncUser(Long userId) {
+        int updated = syncUsers(List.of(userId));
+        log.info("同步用户的角色和权限: userId={}, sessions={}", userId, updated);
+    }
+
+    /**
+     * 同步一批用户的角色和权限，覆盖每个用户在所有设备上的会话
+     * 持有这批用户对应的分段锁（按下标顺序加锁，避免死锁）
+     *
+     * @param userIds 用户ID
+     * @return 写回 Redis 的会话数
+     */
+    private int syncUsers(List<Long> userIds) {
+        int[] stripes = userIds.stream()
+                .mapToInt(userId -> Math.floorMod(userId.hashCode(), USER_LOCK_STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int stripe : stripes) {
+            userLocks[stripe].lock();
+        }
+        try {
+            return syncUsersLocked(userIds);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                userLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private int syncUsersLocked(List<Long> userIds) {
+        // 1. Pipeline 读取用户 → 所有会话 Token，只处理在线用户
+        Map<Long, List<String>> sessions = tokenStore.getSessions(userIds);
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+
+        // 2. MGET 所有会话的 Token → UserPrincipal
+        List<Long> onlineUserIds = new ArrayList<>(sessions.keySet());
+        List<String> tokens = new ArrayList<>();
+        List<Long> tokenOwners = new ArrayList<>();
+        sessions.forEach((userId, userTokens) -> userTokens.forEach(token -> {
+            tokens.add(token);
+            tokenOwners.add(userId);
+        }));
+        List<UserPrincipal> principals = tokenStore.getPrincipals(tokens);
+
+        // 3. 一次查询这批用户的角色关联，同一用户的多个会话共用同一份角色版本
+        Map<Long, List<Long>> roleIdsByUser = new HashMap<>();
+        for (UserRole userRole : userRoleMapper.selectByUserIds(onlineUserIds)) {
+            roleIdsByUser.computeIfAbsent(userRole.getUserId(), k -> new ArrayList<>()).add(userRole.getRoleId());
+        }
+        Map<Long, Map<Long, Long>> roleVersionsByUser = new HashMap<>();
+
+        // 4. 在内存中组装最新的 UserPrincipal（只含角色ID和版本，角色名称和权限在使用时填充）
+        Map<String, UserPrincipal> writes = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            UserPrincipal userPrincipal = principals.get(i);
+            if (userPrincipal == null) {
+                continue;
+            }
+            userPrincipal.setRoleVersions(roleVersionsByUser.computeIfAbsent(tokenOwners.get(i),
+                    userId -> roleGrantStore.versionsOf(roleIdsByUser.getOrDefault(userId, List.of()))));
+            writes.put(tokens.get(i), userPrincipal);
+        }
+        if (writes.isEmpty()) {
+            return 0;
+        }
+
+        // 5. Pipeline 写回：只覆盖仍然存在的 Token（XX），并保留剩余过期时间（KEEPTTL）
+        tokenStore.rewritePrincipals(writes);
+
+        writes.keySet().forEach(tokenLocalCache::invalidate);
+        authCacheInvalidationBus.publishUsers(onlineUserIds);
+        return writes.size();
+    }
+}
@@ -0,0 +1,164 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.util.PermissionUtil;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * 权限编码前缀树
+ * 按字符逐层存储权限编码，每个编码按插入顺序分配稠密下标（重复编码保留第一次的下标）
+ *
+ * <p>精确查找和通配匹配都只按所需编码的长度逐字符下行，与编码总数无关：
+ * 走到分隔符之后的节点时，若该节点存在终止的 * 子节点，说明拥有该模块的通配编码（如 USER:*）</p>
+ * <p>构建后不可变，可在线程间共享</p>
+ */
+public final class PermissionTrie {
+
+    private static final char SEPARATOR = ':';
+    private static final char WILDCARD = '*';
+
+    private final Node root = new Node();
+    private final int size;
+
+    /**
+     * 节点，子节点按字符排序后二分查找
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int index = -1;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node getOrAddChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insertAt = -i - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    /**
+     * 构建前缀树
+     *
+     * @param codes 权限编码，忽略 null
+     */
+    public PermissionTrie(Collection<String> codes) {
+        int next = 0;
+        for (String code : codes) {
+            if (code == null) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < code.length(); i++) {
+                node = node.getOrAddChild(code.charAt(i));
+            }
+            if (node.index < 0) {
+                node.index = next++;
+            }
+        }
+        this.size = next;
+    }
+
+    /**
+     * 不同编码的数量（下标范围为 [0, size)）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 精确查找编码的下标
+     *
+     * @param code 权限编码
+     * @return 下标，不存在时返回 -1
+     */
+    public int indexOf(String code) {
+        Node node = find(code, code.length());
+        return node == null ? -1 : node.index;
+    }
+
+    /**
+     * 编码是否存在
+     */
+    public boolean contains(String code) {
+        return indexOf(code) >= 0;
+    }
+
+    /**
+     * 树中的编码是否授予 required：精确存在，或存在 required 所在模块的通配编码
+     *
+     * @param required 所需权限编码
+     * @return true-授予, false-未授予
+     */
+    public boolean implies(String required) {
+        Node node = root;
+        for (int i = 0; i < required.length(); i++) {
+            char c = required.charAt(i);
+            node = node.child(c);
+            if (node == null) {
+                return false;
+            }
+            if (c == SEPARATOR) {
+                Node wildcard = node.child(WILDCARD);
+                if (wildcard != null && wildcard.index >= 0) {
+                    return true;
+                }
+            }
+        }
+        return node.index >= 0;
+    }
+
+    /**
+     * 遍历通配编码覆盖的所有编码的下标（包括通配编码自身）
+     *
+     * @param wildcardCode 模块通配编码，如 USER:*
+     * @param action       下标回调
+     * @throws IllegalArgumentException 不是通配编码
+     */
+    public void forEachMatch(String wildcardCode, IntConsumer action) {
+        if (!PermissionUtil.isWildcard(wildcardCode)) {
+            throw new IllegalArgumentException("不是通配权限编码: " + wildcardCode);
+        }
+        // 去掉末尾的 *，剩余部分（USER:）作为前缀
+        Node prefix = find(wildcardCode, wildcardCode.length() - 1);
+        if (prefix != null) {
+            forEach(prefix, action);
+        }
+    }
+
+    private Node find(String code, int length) {
+        Node node = root;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.child(code.charAt(i));
+        }
+        return node;
+    }
+
+    private static void forEach(Node node, IntConsumer action) {
+        if (node.index >= 0) {
+            action.accept(node.index);
+        }
+        for (Node child : node.children) {
+            forEach(child, action);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.mapper.RoleMapper;
+import com.dawnmoon.charon.mapper.RolePermissionMapper;
+import com.dawnmoon.charon.mapper.UserRoleMapper;
+import com.dawnmoon.charon.model.entity.Permission;
+import com.dawnmoon.charon.model.entity.Role;
+import com.dawnmoon.charon.model.entity.RolePermission;
+import com.dawnmoon.charon.model.entity.UserRole;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 角色权限图快照
+ * 将 sys_role、sys_permission、sys_role_permission 整体缓存在内存中，用户权限按角色集合求并集得到，
+ * 登录和权限同步只需查询 sys_user_role
+ *
+ * <p>快照不可变，变更时复制后整体替换（AtomicReference），读取无锁；写入串行执行</p>
+ * <p>角色、权限、角色权限关联变更后在事务提交时按ID增量刷新，通知 {@link RbacGraphListener}，并广播给其他节点；
+ * 快照中不存在的角色（如其他节点刚创建）在读取时按需加载</p>
+ */
+@Slf4j
+@Component
+@Order(AuthCacheInvalidationListener.ORDER_RBAC_GRAPH)
+@RequiredArgsConstructor
+public class RbacGraph implements AuthCacheInvalidationListener {
+
+    private final RoleMapper roleMapper;
+    private final PermissionMapper permissionMapper;
+    private final RolePermissionMapper rolePermissionMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final AuthCacheInvalidationBus authCacheInvalidationBus;
+    private final ObjectProvider<RbacGraphListener> listeners;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, Map.of(), Map.of(), Set.of()));
+
+    /**
+     * 角色节点
+     *
+     * @param id              角色ID
+     * @param name            角色名称
+     * @param permissionIds   权限ID
+     * @param permissionCodes 权限编码
+     */
+    private record RoleNode(Long id, String name, Set<Long> permissionIds, List<String> permissionCodes) {
+    }
+
+    /**
+     * 图快照
+     *
+     * @param version         版本号，每次替换递增
+     * @param roles           角色ID → 角色节点
+     * @param permissionCodes 权限ID → 权限编码
+     * @param absentRoles     已确认数据库中不存在的角色ID，展开时不再按需刷新；刷新这些角色时重新确认
+     */
+    private record Snapshot(long version, Map<Long, RoleNode> roles, Map<Long, String> permissionCodes,
+                            Set<Long> absentRoles) {
+    }
+
+    /**
+     * 角色集合展开后的授权结果
+     *
+     * @param roles       角色名称
+     * @param permissions 权限编码（去重，保持角色顺序）
+     */
+    public record Grants(List<String> roles, List<String> permissions) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("加载角色权限图失败，将在首次使用时按需加载角色: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库全量重建快照
+     */
+    public synchronized void reload() {
+        Map<Long, String> codes = new HashMap<>();
+        for (Permission permission : permissionMapper.selectAllPermissions()) {
+            codes.put(permission.getId(), permission.getPermissionCode());
+        }
+        Map<Long, Set<Long>> linksByRole = new HashMap<>();
+        for (RolePermission link : rolePermissionMapper.selectAllLinks()) {
+            linksByRole.computeIfAbsent(link.getRoleId(), k -> new HashSet<>()).add(link.getPermissionId());
+        }
+        Map<Long, RoleNode> roles = new HashMap<>();
+        for (Role role : roleMapper.selectAllRoles()) {
+            roles.put(role.getId(), node(role, linksByRole.getOrDefault(role.getId(), Set.of()), codes));
+        }
+        Snapshot next = new Snapshot(snapshot.get().version() + 1, Map.copyOf(roles), Map.copyOf(codes), Set.of());
+        snapshot.set(next);
+        log.info("角色权限图已重建: version={}, roles={}, permissions={}",
+                next.version(), roles.size(), codes.size());
+    }
+
+    /**
+     * 按ID刷新角色（角色本身或其权限关联变更），数据库中已删除的角色从快照中移除
+     *
+     * @param roleIds 角色ID
+     */
+    public synchronized void refreshRoles(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return;
+        }
+        Snapshot current = snapshot.get();
+        List<Long> ids = List.copyOf(new HashSet<>(roleIds));
+
+        Map<Long, Set<Long>> linksByRole = new HashMap<>();
+        for (RolePermission link : rolePermissionMapper.selectByRoleIds(ids)) {
+            linksByRole.computeIfAbsent(link.getRoleId(), k -> new HashSet<>()).add(link.getPermissionId());
+        }
+
+        // 补齐快照中还没有的权限编码
+        Map<Long, String> known = current.permissionCodes();
+        Set<Long> missingPermissions = new HashSet<>();
+        linksByRole.values().forEach(set -> set.stream().filter(id -> !known.containsKey(id)).forEach(missingPermissions::add));
+        Map<Long, String> codes = known;
+        if (!missingPermissions.isEmpty()) {
+            Map<Long, String> merged = new HashMap<>(known);
+            for (Permission permission : permissionMapper.selectBatchIds(missingPermissions)) {
+                merged.put(permission.getId(), permission.getPermissionCode());
+            }
+            codes = Map.copyOf(merged);
+        }
+
+        Map<Long, RoleNode> roles = new HashMap<>(current.roles());
+        ids.forEach(roles::remove);
+        for (Role role : roleMapper.selectBatchIds(ids)) {
+            roles.put(role.getId(), node(role, linksByRole.getOrDefault(role.getId(), Set.of()), codes));
+        }
+        Set<Long> absent = new HashSet<>(current.absentRoles());
+        for (Long id : ids) {
+            if (roles.containsKey(id)) {
+                absent.remove(id);
+            } else {
+                absent.add(id);
+            }
+        }
+        snapshot.set(new Snapshot(current.version() + 1, Map.copyOf(roles), codes, Set.copyOf(absent)));
+        log.debug("角色权限图已刷新角色: roleIds={}", ids);
+    }
+
+    /**
+     * 按ID刷新权限（编码修改、删除），并重新展开引用这些权限的角色
+     *
+     * @param permissionIds 权限ID
+     * @return 重新展开的角色ID
+     */
+    public synchronized Set<Long> refreshPermissions(Collection<Long> permissionIds) {
+        if (permissionIds == null || permissionIds.isEmpty()) {
+            return Set.of();
+        }
+        Snapshot current = snapshot.get();
+        Set<Long> ids = new HashSet<>(permissionIds);
+
+        Map<Long, String> codes = new HashMap<>(current.permissionCodes());
+        ids.forEach(codes::remove);
+        for (Permission permission : permissionMapper.selectBatchIds(ids)) {
+            codes.put(permission.getId(), permission.getPermissionCode());
+        }
+        Map<Long, String> frozenCodes = Map.copyOf(codes);
+
+        Map<Long, RoleNode> roles = new HashMap<>(current.roles());
+        Set<Long> affected = new HashSet<>();
+        for (RoleNode role : current.roles().values()) {
+            if (role.permissionIds().stream().anyMatch(ids::contains)) {
+                roles.put(role.id(), new RoleNode(role.id(), role.name(), role.permissionIds(),
+                        codesOf(role.permissionIds(), frozenCodes)));
+                affected.add(role.id());
+            }
+        }
+        snapshot.set(new Snapshot(current.version() + 1, Map.copyOf(roles), frozenCodes, current.absentRoles()));
+        log.debug("角色权限图已刷新权限: permissionIds={}, roleIds={}", ids, affected);
+        return affected;
+    }
+
+    /**
+     * 在当前事务提交后刷新角色、通知监听器并广播给其他节点，不在事务中时立即执行
+     *
+     * <p>广播放在最后：其他节点收到失效消息时，监听器（如 {@link RoleGrantStore}）已写入新版本</p>
+     *
+     * @param roleId 角色ID
+     */
+    public void refreshRoleAfterCommit(Long roleId) {
+        afterCommit(() -> {
+            try {
+                refreshRoles(List.of(roleId));
+                notifyListeners(List.of(roleId));
+            } finally {
+                authCacheInvalidationBus.publishRole(roleId);
+            }
+        });
+    }
+
+    /**
+     * 在当前事务提交后刷新权限、通知监听器并广播给其他节点，不在事务中时立即执行
+     *
+     * @param permissionId 权限ID
+     */
+    public void refreshPermissionAfterCommit(Long permissionId) {
+        afterCommit(() -> {
+            try {
+                notifyListeners(refreshPermissions(List.of(permissionId)));
+            } finally {
+                authCacheInvalidationBus.publishPermission(permissionId);
+            }
+        });
+    }
+
+    /**
+     * 角色名称（角色不存在时为 null）和权限编码
+     *
+     * @param roleId 角色ID
+     * @return 授权结果，角色不存在时两个列表均为空
+     */
+    public Grants resolveRole(Long roleId) {
+        return resolve(List.of(roleId));
+    }
+
+    /**
+     * 展开角色集合：角色名称 + 权限编码并集
+     * 快照中没有的角色按需从数据库刷新，确认不存在的角色会被记住，之后不再重复查询
+     *
+     * @param roleIds 角色ID
+     * @return 授权结果
+     */
+    public Grants resolve(Collection<Long> roleIds) {
+        Snapshot current = snapshot.get();
+        List<Long> missing = roleIds.stream()
+                .filter(id -> !current.roles().containsKey(id) && !current.absentRoles().contains(id))
+                .toList();
+        Snapshot effective = current;
+        if (!missing.isEmpty()) {
+            refreshRoles(missing);
+            effective = snapshot.get();
+        }
+
+        List<String> roles = new ArrayList<>(roleIds.size());
+        Set<String> permissions = new LinkedHashSet<>();
+        for (Long roleId : roleIds) {
+            RoleNode role = effective.roles().get(roleId);
+            if (role != null) {
+                roles.add(role.name());
+                permissions.addAll(role.permissionCodes());
+            }
+        }
+        return new Grants(roles, new ArrayList<>(permissions));
+    }
+
+    /**
+     * 查询用户的角色关联（只访问 sys_user_role）并展开
+     *
+     * @param userId 用户ID
+     * @return 授权结果
+     */
+    public Grants resolveUser(Long userId) {
+        return resolve(roleIdsOfUser(userId));
+    }
+
+    /**
+     * 查询用户的角色ID（只访问 sys_user_role）
+     *
+     * @param userId 用户ID
+     * @return 角色ID
+     */
+    public List<Long> roleIdsOfUser(Long userId) {
+        return userRoleMapper.selectByUserId(userId).stream()
+                .map(UserRole::getRoleId)
+                .toList();
+    }
+
+    /**
+     * 当前快照版本
+     */
+    public long version() {
+        return snapshot.get().version();
+    }
+
+    @Override
+    public void onInvalidation(AuthCacheInvalidationMessage message) {
+        if (!message.getPermissionIds().isEmpty()) {
+            refreshPermissions(message.getPermissionIds());
+        }
+        if (!message.getRoleIds().isEmpty()) {
+            refreshRoles(message.getRoleIds());
+        }
+    }
+
+    private void notifyListeners(Collection<Long> roleIds) {
+        if (roleIds.isEmpty()) {
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> listener.onRolesChanged(roleIds));
+    }
+
+    private static RoleNode node(Role role, Set<Long> permissionIds, Map<Long, String> codes) {
+        return new RoleNode(role.getId(), role.getRoleName(), Set.copyOf(permissionIds), codesOf(permissionIds, codes));
+    }
+
+    private static List<String> codesOf(Set<Long> permissionIds, Map<Long, String> codes) {
+        return permissionIds.stream()
+                .map(codes::get)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+    }
+
+    private static void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                // 数据已提交，刷新失败不影响请求结果；未命中的角色会在读取时按需加载
+                log.error("刷新角色权限图失败: {}", e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
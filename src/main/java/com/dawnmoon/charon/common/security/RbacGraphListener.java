@@ -0,0 +1,17 @@
+package com.dawnmoon.charon.common.security;
+
+import java.util.Collection;
+
+/**
+ * 角色权限图变更监听器
+ * 本节点提交的角色、权限变更刷新到 {@link RbacGraph} 后回调，其他节点广播过来的刷新不会触发
+ */
+public interface RbacGraphListener {
+
+    /**
+     * 角色内容（名称或权限集合）已变更
+     *
+     * @param roleIds 受影响的角色ID（包含已删除的角色）
+     */
+    void onRolesChanged(Collection<Long> roleIds);
+}
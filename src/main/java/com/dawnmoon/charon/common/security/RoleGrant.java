@@ -0,0 +1,29 @@
+package com.dawnmoon.charon.common.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 角色权限集
+ * 每个角色一份，存储在 Redis 中，由 {@link RoleGrantStore} 维护；用户权限在检查时按角色求并集
+ *
+ * <p>版本号在角色每次变更时递增，UserPrincipal 中记录登录或同步时看到的版本，用于识别本地缓存是否过旧</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleGrant implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private Long roleId;
+    private String roleName;  // 角色已删除时为 null
+    private Long version;
+    private List<String> permissions;
+}
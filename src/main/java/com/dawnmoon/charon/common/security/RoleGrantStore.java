@@ -0,0 +1,291 @@
+package com.dawnmoon.charon.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 角色权限集存储
+ * 每个角色的权限集合带版本号存储在 Redis（role_grant:{roleId}），节点本地再缓存一份；
+ * UserPrincipal 只记录角色ID和版本，检查权限时按角色权限集求并集
+ *
+ * <p>角色变更只写该角色自己的 key（INCR 版本 + 按版本写入，两次往返），与角色下的用户数无关</p>
+ * <p>只有提交变更的节点递增版本并发布（{@link #onRolesChanged}）；其他节点发现 Redis 中缺失或落后时，
+ * 以计数器的当前版本补写从数据库重新读取的内容，本节点角色权限图尚未应用远程变更时也不会以更高的版本覆盖较新的内容</p>
+ * <p>本地缓存在收到角色 / 权限失效广播时清除；UserPrincipal 中记录的版本高于本地缓存时说明缓存过旧，直接从 Redis 重新读取</p>
+ * <p>命中、未命中、淘汰次数通过 actuator 暴露：/actuator/metrics/cache.gets?tag=cache:role_grant_cache</p>
+ */
+@Slf4j
+@Component
+@Order(AuthCacheInvalidationListener.ORDER_ROLE_GRANT)
+public class RoleGrantStore implements RbacGraphListener, AuthCacheInvalidationListener {
+
+    /**
+     * 角色权限集key前缀
+     */
+    private static final String GRANT_KEY_PREFIX = "role_grant:";
+
+    /**
+     * 角色权限集版本计数器key前缀
+     */
+    private static final String VERSION_KEY_PREFIX = "role_grant_version:";
+
+    /**
+     * 指标中的缓存名称
+     */
+    private static final String CACHE_NAME = "role_grant_cache";
+
+    /**
+     * 按版本写入角色权限集的Lua脚本：已存储的版本不低于新版本时放弃写入，避免并发发布时旧数据后到覆盖新数据
+     * KEYS[1] = role_grant:{roleId}，ARGV[1] = 序列化后的 RoleGrant（JSON），ARGV[2] = 版本号
+     * 通用 JSON 序列化器带类型信息，存储格式为 ["类名", {...}]，版本号在第二个元素中
+     */
+    private static final RedisScript<Long> PUT_IF_NEWER_SCRIPT = new DefaultRedisScript<>(
+            "local raw = redis.call('GET', KEYS[1]) " +
+            "if raw then " +
+            "  local ok, current = pcall(cjson.decode, raw) " +
+            "  if ok and type(current) == 'table' then " +
+            "    if type(current[2]) == 'table' then current = current[2] end " +
+            "    local version = tonumber(current['version']) " +
+            "    if version and version >= tonumber(ARGV[2]) then return 0 end " +
+            "  end " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    private final RbacGraph rbacGraph;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<Long, RoleGrant> cache;
+
+    /**
+     * 本地缓存代数，缓存失效或载入更新的版本时递增；
+     * UserPrincipal 记录填充时的代数，不一致时重新求并集
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public RoleGrantStore(RbacGraph rbacGraph,
+                          RedisTemplate<String, Object> redisTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.role-grant.local-cache.max-size:1000}") long maxSize,
+                          @Value("${app.security.role-grant.local-cache.ttl:300}") long ttlSeconds) {
+        this.rbacGraph = rbacGraph;
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("角色权限集本地缓存初始化完成: maxSize={}, ttl={}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取角色的当前版本，Redis 中还没有的角色先从数据库补写
+     *
+     * @param roleIds 角色ID
+     * @return 角色ID → 版本（保持传入顺序）
+     */
+    public Map<Long, Long> versionsOf(Collection<Long> roleIds) {
+        Map<Long, RoleGrant> grants = load(roleIds);
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        for (Long roleId : roleIds) {
+            RoleGrant grant = grants.get(roleId);
+            if (grant != null) {
+                versions.put(roleId, grant.getVersion());
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * 按角色权限集填充 UserPrincipal 的角色名称和权限
+     * 本地缓存未变化时直接返回，可在每次请求和权限检查时调用
+     *
+     * @param userPrincipal 用户主体
+     */
+    public void hydrate(UserPrincipal userPrincipal) {
+        Map<Long, Long> versions = userPrincipal.getRoleVersions();
+        if (versions == null) {
+            // 兼容旧格式：按用户角色关联转换，只在本节点内存中生效，Token 过期或权限同步后 Redis 中即为新格式
+            versions = versionsOf(rbacGraph.roleIdsOfUser(userPrincipal.getUserId()));
+            userPrincipal.setRoleVersions(versions);
+        }
+
+        // 先取代数再读取，读取期间发生失效时下次调用会重新填充
+        long current = generation.get();
+        if (userPrincipal.getGrantGeneration() == current && userPrincipal.getPermissions() != null) {
+            return;
+        }
+
+        Map<Long, RoleGrant> grants = load(versions.keySet());
+        List<Long> stale = new ArrayList<>();
+        versions.forEach((roleId, version) -> {
+            RoleGrant grant = grants.get(roleId);
+            if (grant != null && version != null && grant.getVersion() < version) {
+                stale.add(roleId);
+            }
+        });
+        if (!stale.isEmpty()) {
+            // 失效广播尚未到达，本地缓存落后于 Token 中记录的版本
+            cache.invalidateAll(stale);
+            Map<Long, RoleGrant> fetched = fetch(stale);
+            boolean changed = false;
+            for (Long roleId : stale) {
+                RoleGrant grant = fetched.get(roleId);
+                if (grant == null || grant.getVersion() < versions.get(roleId)) {
+                    // Redis 中的版本仍低于 Token 记录的版本（数据丢失），从数据库补写，
+                    // 否则每次请求都会重复读取；restore 自身会递增代数
+                    grant = restore(roleId);
+                } else if (grant.getVersion() > grants.get(roleId).getVersion()) {
+                    changed = true;
+                }
+                grants.put(roleId, grant);
+            }
+            if (changed) {
+                generation.incrementAndGet();
+            }
+        }
+
+        List<String> roles = new ArrayList<>(versions.size());
+        Set<String> permissions = new LinkedHashSet<>();
+        for (Long roleId : versions.keySet()) {
+            RoleGrant grant = grants.get(roleId);
+            if (grant != null && grant.getRoleName() != null) {
+                roles.add(grant.getRoleName());
+                permissions.addAll(grant.getPermissions());
+            }
+        }
+        userPrincipal.setRoles(roles);
+        userPrincipal.setPermissions(new ArrayList<>(permissions));
+        userPrincipal.setGrantGeneration(current);
+    }
+
+    /**
+     * 从角色权限图读取角色的最新内容，以新版本写入 Redis
+     * 只能由提交变更、已刷新本地角色权限图的节点调用
+     *
+     * @param roleId 角色ID
+     * @return 写入后的角色权限集（并发发布时为 Redis 中更新的版本）
+     */
+    public RoleGrant publish(Long roleId) {
+        Long version = redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + roleId);
+        return put(roleId, version, rbacGraph.resolveRole(roleId));
+    }
+
+    /**
+     * 补写 Redis 中缺失或落后的角色权限集，不递增版本
+     * 先读取计数器的当前版本，再从数据库重新读取角色内容：此后提交的变更会以更高的版本覆盖，
+     * 此前提交的变更已包含在读取的内容中
+     *
+     * @param roleId 角色ID
+     * @return 写入后的角色权限集（Redis 中已有不低于当前版本的数据时为该数据）
+     */
+    private RoleGrant restore(Long roleId) {
+        Object current = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + roleId);
+        long version = current instanceof Number number ? number.longValue() : 0;
+        rbacGraph.refreshRoles(List.of(roleId));
+        return put(roleId, version, rbacGraph.resolveRole(roleId));
+    }
+
+    /**
+     * 按版本写入 Redis 和本地缓存
+     */
+    private RoleGrant put(Long roleId, long version, RbacGraph.Grants grants) {
+        String key = GRANT_KEY_PREFIX + roleId;
+        RoleGrant grant = new RoleGrant(roleId, grants.roles().isEmpty() ? null : grants.roles().get(0),
+                version, grants.permissions());
+
+        Long written = redisTemplate.execute(PUT_IF_NEWER_SCRIPT, List.of(key), grant, version);
+        if (written != null && written == 0 && redisTemplate.opsForValue().get(key) instanceof RoleGrant newer) {
+            grant = newer;
+        }
+        cache.put(roleId, grant);
+        generation.incrementAndGet();
+        log.debug("写入角色权限集: roleId={}, version={}, permissions={}",
+                roleId, grant.getVersion(), grant.getPermissions().size());
+        return grant;
+    }
+
+    @Override
+    public void onRolesChanged(Collection<Long> roleIds) {
+        invalidate(roleIds);
+        roleIds.forEach(this::publish);
+    }
+
+    @Override
+    public void onInvalidation(AuthCacheInvalidationMessage message) {
+        // 权限编码变更会影响多个角色，直接清空
+        if (!message.getPermissionIds().isEmpty()) {
+            cache.invalidateAll();
+            generation.incrementAndGet();
+            return;
+        }
+        invalidate(message.getRoleIds());
+    }
+
+    private void invalidate(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(roleIds);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 本地缓存 → Redis MGET → 从数据库补写，保证每个角色都有结果
+     */
+    private Map<Long, RoleGrant> load(Collection<Long> roleIds) {
+        Map<Long, RoleGrant> result = new HashMap<>(cache.getAllPresent(roleIds));
+        List<Long> missing = roleIds.stream().filter(id -> !result.containsKey(id)).distinct().toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+        result.putAll(fetch(missing));
+        for (Long roleId : missing) {
+            if (!result.containsKey(roleId)) {
+                // Redis 中没有（首次使用或 Redis 数据被清空），从数据库补写
+                result.put(roleId, restore(roleId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 Redis 批量读取并放入本地缓存
+     */
+    private Map<Long, RoleGrant> fetch(List<Long> roleIds) {
+        List<String> keys = roleIds.stream().map(id -> GRANT_KEY_PREFIX + id).toList();
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        Map<Long, RoleGrant> fetched = new HashMap<>();
+        if (values == null) {
+            return fetched;
+        }
+        for (int i = 0; i < roleIds.size(); i++) {
+            if (values.get(i) instanceof RoleGrant grant) {
+                fetched.put(roleIds.get(i), grant);
+                cache.put(roleIds.get(i), grant);
+            }
+        }
+        return fetched;
+    }
+}
@@ -0,0 +1,117 @@
+package com.dawnmoon.charon.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Token 本地近端缓存
+ * 位于 Redis 之前的一级缓存，缓存 Token → UserPrincipal 映射，减少每个请求的 Redis 往返
+ *
+ * <p>缓存按容量和写入时间淘汰，TTL 较短，用于限制多节点之间的数据不一致窗口</p>
+ * <p>Token 被删除（退出登录、强制下线、新设备登录踢出旧设备）或用户权限变更时需主动失效</p>
+ * <p>命中、未命中、淘汰次数通过 actuator 暴露：/actuator/metrics/cache.gets?tag=cache:token_local_cache</p>
+ * <p>其他节点上的变更通过 {@link AuthCacheInvalidationBus} 广播到本节点</p>
+ */
+@Slf4j
+@Component
+@Order(AuthCacheInvalidationListener.ORDER_TOKEN_CACHE)
+public class TokenLocalCache implements AuthCacheInvalidationListener {
+
+    /**
+     * 指标中的缓存名称
+     */
+    private static final String CACHE_NAME = "token_local_cache";
+
+    private final Cache<String, UserPrincipal> cache;
+
+    public TokenLocalCache(MeterRegistry meterRegistry,
+                           @Value("${app.security.token.local-cache.max-size:10000}") long maxSize,
+                           @Value("${app.security.token.local-cache.ttl:30}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Token 本地缓存初始化完成: maxSize={}, ttl={}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取缓存的用户信息
+     *
+     * @param token Token
+     * @return 用户信息，不存在时返回 null
+     */
+    public UserPrincipal get(String token) {
+        return cache.getIfPresent(token);
+    }
+
+    /**
+     * 缓存用户信息
+     *
+     * @param token         Token
+     * @param userPrincipal 用户信息
+     */
+    public void put(String token, UserPrincipal userPrincipal) {
+        cache.put(token, userPrincipal);
+    }
+
+    /**
+     * 使单个 Token 失效
+     *
+     * @param token Token
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            cache.invalidate(token);
+        }
+    }
+
+    /**
+     * 使某个用户的所有 Token 失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidateUser(Long userId) {
+        cache.asMap().values().removeIf(principal -> userId.equals(principal.getUserId()));
+    }
+
+    /**
+     * 使一批用户的所有 Token 失效（单次遍历）
+     *
+     * @param userIds 用户ID集合
+     */
+    public void invalidateUsers(Set<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        cache.asMap().values().removeIf(principal -> userIds.contains(principal.getUserId()));
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onInvalidation(AuthCacheInvalidationMessage message) {
+        // 权限本身变更（编码修改、删除）可能影响任意用户，直接清空
+        if (!message.getPermissionIds().isEmpty()) {
+            invalidateAll();
+            return;
+        }
+        message.getTokens().forEach(cache::invalidate);
+        invalidateUsers(message.getUserIds());
+    }
+}
@@ -0,0 +1,396 @@
+package com.dawnmoon.charon.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 存储
+ * 统一管理三类 key，按用途使用不同的模板：
+ * <ul>
+ *     <li>user_id_to_token:{userId} → 最近一次登录的 Token：纯字符串，使用 StringRedisTemplate，不再带 JSON 引号和类型信息</li>
+ *     <li>user_sessions:{userId} → 用户的所有会话：ZSET，成员为 Token，分值为预计过期时间戳（毫秒）</li>
+ *     <li>{token.prefix}{token} → UserPrincipal：使用 principalRedisTemplate（二进制编码，可读取旧的 JSON 格式）</li>
+ * </ul>
+ *
+ * <p>每个用户最多保留 app.security.session.max-devices 个会话，超出时淘汰分值最小（最久未续期）的会话；
+ * 默认 1，即新设备登录踢出旧设备</p>
+ * <p>登录、退出、强制下线、续期同时修改多个 key，均由 Lua 脚本原子执行（单次往返），并发登录不会遗留孤立 Token</p>
+ * <p>兼容旧数据：旧版本写入的 user_id_to_token 值是 JSON 字符串（带双引号），读取时去掉引号，Lua 脚本中同样处理；
+ * 升级前登录、不在会话集合中的 Token 在登录和强制下线时一并处理</p>
+ * <p>注意：脚本内访问了未声明在 KEYS 中的 Token key，Redis Cluster 下需保证这些 key 位于同一节点</p>
+ */
+@Component
+public class TokenStore {
+
+    /**
+     * 用户ID到Token的映射key前缀
+     */
+    private static final String USER_ID_TO_TOKEN_KEY_PREFIX = "user_id_to_token:";
+
+    /**
+     * 用户会话集合key前缀
+     */
+    private static final String USER_SESSIONS_KEY_PREFIX = "user_sessions:";
+
+    /**
+     * 读取 user_id_to_token 值并兼容旧的 JSON 字符串格式的 Lua 片段，结果为 token 变量（未登录时为 false）
+     */
+    private static final String READ_TOKEN =
+            "local token = redis.call('GET', KEYS[1]) " +
+            "if token and string.sub(token, 1, 1) == '\"' then token = cjson.decode(token) end ";
+
+    /**
+     * 根据用户ID查找UserPrincipal的Lua脚本
+     * KEYS[1] = user_id_to_token:{userId}，ARGV[1] = Token 前缀
+     */
+    private static final RedisScript<UserPrincipal> PRINCIPAL_BY_USER_ID_SCRIPT = new DefaultRedisScript<>(
+            READ_TOKEN +
+            "if not token then return false end " +
+            "return redis.call('GET', ARGV[1] .. token)",
+            UserPrincipal.class);
+
+    /**
+     * 登录的Lua脚本：清理已过期的会话，超出设备数时淘汰最久未续期的会话，写入新会话，返回被淘汰的 Token
+     * KEYS[1] = user_id_to_token:{userId}，KEYS[2] = 新 Token key，KEYS[3] = user_sessions:{userId}，
+     * ARGV[1] = 新 Token，ARGV[2] = 序列化后的 UserPrincipal，ARGV[3] = 过期时间（秒），ARGV[4] = Token 前缀，
+     * ARGV[5] = 当前时间戳（毫秒），ARGV[6] = 最大设备数
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LOGIN_SCRIPT = new DefaultRedisScript<>(
+            READ_TOKEN +
+            "local now = tonumber(ARGV[5]) " +
+            "local ttl = tonumber(ARGV[3]) " +
+            // 升级前登录的 Token 不在会话集合中，按剩余过期时间补入
+            "if token and token ~= ARGV[1] and not redis.call('ZSCORE', KEYS[3], token) then " +
+            "  local pttl = redis.call('PTTL', ARGV[4] .. token) " +
+            "  if pttl > 0 then redis.call('ZADD', KEYS[3], now + pttl, token) end " +
+            "end " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', now) " +
+            "local evicted = {} " +
+            "local overflow = redis.call('ZCARD', KEYS[3]) - tonumber(ARGV[6]) + 1 " +
+            "if overflow > 0 then " +
+            "  evicted = redis.call('ZRANGE', KEYS[3], 0, overflow - 1) " +
+            "  for _, old in ipairs(evicted) do redis.call('DEL', ARGV[4] .. old) end " +
+            "  redis.call('ZREMRANGEBYRANK', KEYS[3], 0, overflow - 1) " +
+            "end " +
+            "redis.call('SET', KEYS[2], ARGV[2], 'EX', ttl) " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'EX', ttl) " +
+            "redis.call('ZADD', KEYS[3], now + ttl * 1000, ARGV[1]) " +
+            "if redis.call('TTL', KEYS[3]) < ttl then redis.call('EXPIRE', KEYS[3], ttl) end " +
+            "return evicted",
+            List.class);
+
+    /**
+     * 退出登录的Lua脚本：删除 Token 及其会话；UserId 映射指向该 Token 时改为指向最近续期的其他会话，没有则删除
+     * KEYS[1] = user_id_to_token:{userId}，KEYS[2] = Token key，KEYS[3] = user_sessions:{userId}，ARGV[1] = Token
+     */
+    private static final RedisScript<Long> LOGOUT_SCRIPT = new DefaultRedisScript<>(
+            READ_TOKEN +
+            "local deleted = redis.call('DEL', KEYS[2]) " +
+            "redis.call('ZREM', KEYS[3], ARGV[1]) " +
+            "if token == ARGV[1] then " +
+            "  local latest = redis.call('ZREVRANGE', KEYS[3], 0, 0)[1] " +
+            "  if latest then redis.call('SET', KEYS[1], latest, 'KEEPTTL') else redis.call('DEL', KEYS[1]) end " +
+            "end " +
+            "return deleted",
+            Long.class);
+
+    /**
+     * 强制下线的Lua脚本：删除用户的所有会话及 UserId 映射，返回被删除的 Token
+     * KEYS[1] = user_id_to_token:{userId}，KEYS[2] = user_sessions:{userId}，ARGV[1] = Token 前缀
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FORCE_LOGOUT_SCRIPT = new DefaultRedisScript<>(
+            READ_TOKEN +
+            "local tokens = redis.call('ZRANGE', KEYS[2], 0, -1) " +
+            "if token and not redis.call('ZSCORE', KEYS[2], token) then table.insert(tokens, token) end " +
+            "for _, t in ipairs(tokens) do redis.call('DEL', ARGV[1] .. t) end " +
+            "redis.call('DEL', KEYS[1], KEYS[2]) " +
+            "return tokens",
+            List.class);
+
+    /**
+     * 续期的Lua脚本：重置 Token 过期时间并更新会话分值，会话集合的过期时间不短于该 Token，
+     * UserId 映射指向该 Token 时一并续期；
+     * 用户信息未被其他请求改写时（值与 ARGV[4] 相同）换成记录了新过期时间的 ARGV[5]，否则只续期，不覆盖并发的权限更新
+     * KEYS[1] = user_id_to_token:{userId}，KEYS[2] = Token key，KEYS[3] = user_sessions:{userId}，
+     * ARGV[1] = Token，ARGV[2] = 过期时间（秒），ARGV[3] = 当前时间戳（毫秒），
+     * ARGV[4] = 续期前序列化的 UserPrincipal，ARGV[5] = 续期后序列化的 UserPrincipal
+     */
+    private static final RedisScript<Long> REFRESH_SCRIPT = new DefaultRedisScript<>(
+            "local ttl = tonumber(ARGV[2]) " +
+            "local current = redis.call('GET', KEYS[2]) " +
+            "if not current then return 0 end " +
+            "if current == ARGV[4] then redis.call('SET', KEYS[2], ARGV[5], 'EX', ttl) " +
+            "else redis.call('EXPIRE', KEYS[2], ttl) end " +
+            "redis.call('ZADD', KEYS[3], tonumber(ARGV[3]) + ttl * 1000, ARGV[1]) " +
+            "if redis.call('TTL', KEYS[3]) < ttl then redis.call('EXPIRE', KEYS[3], ttl) end " +
+            READ_TOKEN +
+            "if token == ARGV[1] then redis.call('EXPIRE', KEYS[1], ttl) end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, UserPrincipal> principalRedisTemplate;
+    private final String tokenKeyPrefix;
+    private final int maxDevices;
+
+    public TokenStore(StringRedisTemplate stringRedisTemplate,
+                      RedisTemplate<String, UserPrincipal> principalRedisTemplate,
+                      @Value("${app.security.token.prefix:token:}") String tokenKeyPrefix,
+                      @Value("${app.security.session.max-devices:1}") int maxDevices) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.principalRedisTemplate = principalRedisTemplate;
+        this.tokenKeyPrefix = tokenKeyPrefix;
+        this.maxDevices = Math.max(1, maxDevices);
+    }
+
+    /**
+     * Token → UserPrincipal 的 key
+     */
+    public String tokenKey(String token) {
+        return tokenKeyPrefix + token;
+    }
+
+    /**
+     * 用户ID → Token 的 key
+     */
+    public String userKey(Long userId) {
+        return USER_ID_TO_TOKEN_KEY_PREFIX + userId;
+    }
+
+    /**
+     * 用户会话集合的 key
+     */
+    public String sessionsKey(Long userId) {
+        return USER_SESSIONS_KEY_PREFIX + userId;
+    }
+
+    /**
+     * 获取用户最近一次登录的 Token
+     *
+     * @param userId 用户ID
+     * @return Token，未登录时返回 null
+     */
+    public String getToken(Long userId) {
+        return unquote(stringRedisTemplate.opsForValue().get(userKey(userId)));
+    }
+
+    /**
+     * 批量获取用户的所有会话（Pipeline，每个用户一次 ZRANGE + 一次 GET）
+     * 会话集合中的 Token 可能已过期，调用方读取 UserPrincipal 时会得到 null
+     *
+     * @param userIds 用户ID
+     * @return 用户ID → Token（保持 userIds 顺序，未登录的用户不包含在内）
+     */
+    public Map<Long, List<String>> getSessions(List<Long> userIds) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                commands.zRange(sessionsKey(userId), 0, -1);
+                commands.get(userKey(userId));
+            }
+            return null;
+        });
+        Map<Long, List<String>> sessions = new LinkedHashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            Set<String> tokens = new LinkedHashSet<>();
+            if (results.get(2 * i) instanceof Collection<?> members) {
+                members.forEach(member -> tokens.add(String.valueOf(member)));
+            }
+            // 升级前登录的 Token 只存在于 UserId 映射中
+            if (results.get(2 * i + 1) instanceof String latest) {
+                tokens.add(unquote(latest));
+            }
+            if (!tokens.isEmpty()) {
+                sessions.put(userIds.get(i), new ArrayList<>(tokens));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 获取 Token 对应的用户信息
+     *
+     * @param token Token
+     * @return 用户信息，不存在时返回 null
+     */
+    public UserPrincipal getPrincipal(String token) {
+        return principalRedisTemplate.opsForValue().get(tokenKey(token));
+    }
+
+    /**
+     * 批量获取 Token 对应的用户信息（MGET）
+     *
+     * @param tokens Token
+     * @return 与 tokens 一一对应，不存在的位置为 null
+     */
+    public List<UserPrincipal> getPrincipals(List<String> tokens) {
+        List<UserPrincipal> values = principalRedisTemplate.opsForValue()
+                .multiGet(tokens.stream().map(this::tokenKey).toList());
+        return values == null ? new ArrayList<>(Collections.nCopies(tokens.size(), null)) : values;
+    }
+
+    /**
+     * 根据用户ID获取最近一次登录的用户信息（Lua 脚本，单次往返）
+     *
+     * @param userId 用户ID
+     * @return 用户信息，未登录时返回 null
+     */
+    public UserPrincipal getPrincipalByUserId(Long userId) {
+        return principalRedisTemplate.execute(
+                PRINCIPAL_BY_USER_ID_SCRIPT,
+                RedisSerializer.string(),
+                principalSerializer(),
+                List.of(userKey(userId)),
+                tokenKeyPrefix);
+    }
+
+    /**
+     * 登录：原子地写入新会话（Token → UserPrincipal、用户ID → Token、会话集合），超出设备数时淘汰最久未续期的会话
+     *
+     * @param token      新 Token
+     * @param principal  用户信息
+     * @param ttlSeconds 过期时间（秒）
+     * @return 被淘汰的 Token，没有时为空
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<String> login(String token, UserPrincipal principal, long ttlSeconds) {
+        Long userId = principal.getUserId();
+        List<String> evicted = stringRedisTemplate.execute(
+                LOGIN_SCRIPT,
+                RedisSerializer.byteArray(),
+                // 列表结果按元素反序列化，元素为 Token 字符串
+                (RedisSerializer) RedisSerializer.string(),
+                List.of(userKey(userId), tokenKey(token), sessionsKey(userId)),
+                bytes(token), principalSerializer().serialize(principal), bytes(String.valueOf(ttlSeconds)),
+                bytes(tokenKeyPrefix), bytes(String.valueOf(System.currentTimeMillis())),
+                bytes(String.valueOf(maxDevices)));
+        return evicted == null ? List.of() : evicted;
+    }
+
+    /**
+     * 退出登录：原子地删除 Token 及其会话，不影响该用户的其他会话
+     *
+     * @param token  Token
+     * @param userId Token 所属用户ID
+     * @return Token 是否存在
+     */
+    public boolean logout(String token, Long userId) {
+        Long deleted = stringRedisTemplate.execute(LOGOUT_SCRIPT,
+                List.of(userKey(userId), tokenKey(token), sessionsKey(userId)), token);
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * 强制下线：原子地删除用户的所有会话及 用户ID → Token 映射
+     *
+     * @param userId 用户ID
+     * @return 被删除的 Token，未登录时为空
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> forceLogout(Long userId) {
+        List<String> tokens = stringRedisTemplate.execute(FORCE_LOGOUT_SCRIPT,
+                List.of(userKey(userId), sessionsKey(userId)), tokenKeyPrefix);
+        return tokens == null ? List.of() : tokens;
+    }
+
+    /**
+     * 覆盖 Token 对应的用户信息
+     *
+     * @param token      Token
+     * @param principal  用户信息
+     * @param ttlSeconds 过期时间（秒）
+     */
+    public void updatePrincipal(String token, UserPrincipal principal, long ttlSeconds) {
+        principalRedisTemplate.opsForValue().set(tokenKey(token), principal, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 批量覆盖仍然存在的 Token（Pipeline，SET XX KEEPTTL，保留剩余过期时间，需要 Redis 6.0+）
+     *
+     * @param principalsByToken Token → 用户信息
+     */
+    public void rewritePrincipals(Map<String, UserPrincipal> principalsByToken) {
+        RedisSerializer<UserPrincipal> valueSerializer = principalSerializer();
+        Map<byte[], byte[]> writes = new LinkedHashMap<>();
+        principalsByToken.forEach((token, principal) ->
+                writes.put(RedisSerializer.string().serialize(tokenKey(token)), valueSerializer.serialize(principal)));
+        principalRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            writes.forEach((key, value) -> connection.stringCommands().set(key, value,
+                    Expiration.keepTtl(), RedisStringCommands.SetOption.ifPresent()));
+            return null;
+        });
+    }
+
+    /**
+     * Token 剩余过期时间（秒）
+     *
+     * @return 剩余秒数，不存在时为负数或 null
+     */
+    public Long getExpire(String token) {
+        return principalRedisTemplate.getExpire(tokenKey(token), TimeUnit.SECONDS);
+    }
+
+    /**
+     * 续期：重置 Token 过期时间，同步更新会话集合，并把新的过期时间写入 principal 和 Redis 中的用户信息，
+     * 其他节点读到的用户信息不在刷新窗口内，不会重复续期；Redis 中的用户信息已被并发改写时只续期
+     *
+     * @param token      Token
+     * @param principal  续期前从 Redis 读取的用户信息
+     * @param ttlSeconds 过期时间（秒）
+     */
+    public void refresh(String token, UserPrincipal principal, long ttlSeconds) {
+        Long userId = principal.getUserId();
+        long now = System.currentTimeMillis();
+        RedisSerializer<UserPrincipal> serializer = principalSerializer();
+        byte[] expected = serializer.serialize(principal);
+        principal.setExpireAt(now + ttlSeconds * 1000);
+        stringRedisTemplate.execute(REFRESH_SCRIPT,
+                RedisSerializer.byteArray(),
+                new GenericToStringSerializer<>(Long.class),
+                List.of(userKey(userId), tokenKey(token), sessionsKey(userId)),
+                bytes(token), bytes(String.valueOf(ttlSeconds)), bytes(String.valueOf(now)),
+                expected, serializer.serialize(principal));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<UserPrincipal> principalSerializer() {
+        return (RedisSerializer<UserPrincipal>) principalRedisTemplate.getValueSerializer();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 去掉旧数据中 JSON 字符串的双引号（Token 本身不包含引号）
+     */
+    private static String unquote(String value) {
+        if (value != null && value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
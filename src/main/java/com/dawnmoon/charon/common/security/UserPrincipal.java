@@ -1,9 +1,11 @@
 package com.dawnmoon.charon.common.security;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
@@ -11,16 +13,21 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 用户认证主体
  *
- * <p>该对象会被缓存到Redis中，包含用户的角色和权限信息</p>
+ * <p>该对象会被缓存到Redis中，只包含用户的角色ID及其版本；角色名称和权限由 {@link RoleGrantStore}
+ * 在本节点按角色权限集求并集后填充，角色权限变更无需改写成员的 Token</p>
+ * <p>旧格式（直接包含角色名称和权限列表）仍可读取，首次使用时按用户角色关联转换</p>
+ * <p>反过来不兼容：新格式不写入角色名称和权限，且包含旧版本没有的 roleVersions、expireAt 字段，
+ * 旧节点读取时反序列化失败（JSON）或无法识别（二进制），请求会被当作未登录。
+ * 因此从旧版本升级不能滚动发布，需先停止全部旧节点再启动新节点；已有的旧格式 Token 无需清理</p>
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class UserPrincipal implements Serializable {
 
     @Serial
@@ -28,9 +35,96 @@ public class UserPrincipal implements Serializable {
 
     private Long userId;
     private String username;
-    private List<String> roles;
-    private List<String> permissions;  // 用户权限列表（权限编码，如：USER:CREATE）
+    private Map<Long, Long> roleVersions;  // 角色ID → 角色权限集版本
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private List<String> roles;  // 由角色权限集填充，只读取旧格式，不再写入 Redis
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private List<String> permissions;  // 用户权限列表（权限编码，如：USER:CREATE），同上
+
     private Long loginTime;
+    private Long expireAt;  // Token 预计过期时间戳（毫秒），用于在本地判断是否需要滑动续期
+
+    /**
+     * 权限位图（仅在本节点内存中使用，不序列化到 Redis）
+     * 由 PermissionCheckService 按需编译，注册表版本变化后重新编译
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile PermissionMask permissionMask;
+
+    /**
+     * 权限前缀树（仅在本节点内存中使用，不序列化到 Redis）
+     * 位图不可比较时由 PermissionCheckService 按需构建，权限列表变化时清除
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile PermissionTrie permissionTrie;
+
+    /**
+     * 填充角色和权限时 {@link RoleGrantStore} 的缓存代数（仅在本节点内存中使用），-1 表示尚未填充
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile long grantGeneration = -1;
+
+    public UserPrincipal(Long userId, String username, Map<Long, Long> roleVersions, Long loginTime, Long expireAt) {
+        this.userId = userId;
+        this.username = username;
+        this.roleVersions = roleVersions;
+        this.loginTime = loginTime;
+        this.expireAt = expireAt;
+    }
+
+    public UserPrincipal(Long userId, String username, List<String> roles, List<String> permissions,
+                         Long loginTime, Long expireAt) {
+        this.userId = userId;
+        this.username = username;
+        this.roles = roles;
+        this.permissions = permissions;
+        this.loginTime = loginTime;
+        this.expireAt = expireAt;
+    }
+
+    /**
+     * 设置权限列表，同时清除已编译的权限位图和前缀树
+     */
+    public void setPermissions(List<String> permissions) {
+        this.permissions = permissions;
+        this.permissionMask = null;
+        this.permissionTrie = null;
+    }
+
+    @JsonIgnore
+    PermissionMask getPermissionMask() {
+        return permissionMask;
+    }
+
+    @JsonIgnore
+    void setPermissionMask(PermissionMask permissionMask) {
+        this.permissionMask = permissionMask;
+    }
+
+    @JsonIgnore
+    PermissionTrie getPermissionTrie() {
+        return permissionTrie;
+    }
+
+    @JsonIgnore
+    void setPermissionTrie(PermissionTrie permissionTrie) {
+        this.permissionTrie = permissionTrie;
+    }
+
+    @JsonIgnore
+    long getGrantGeneration() {
+        return grantGeneration;
+    }
+
+    @JsonIgnore
+    void setGrantGeneration(long grantGeneration) {
+        this.grantGeneration = grantGeneration;
+    }
 
     /**
      * 获取用户权限列表
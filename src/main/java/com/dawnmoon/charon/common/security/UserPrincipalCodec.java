@@ -0,0 +1,258 @@
+package com.dawnmoon.charon.common.security;
+
+import com.dawnmoon.charon.util.PermissionUtil;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserPrincipal 紧凑二进制编码
+ * 用于 Token → UserPrincipal 的 Redis 值，替代带类型信息的 JSON，减少内存、网络传输和每个请求的反序列化开销
+ *
+ * <p>格式（v1）：魔数 0xC7、格式版本、字段存在位图，随后按位图顺序写入存在的字段：
+ * 整数为无符号 varint，字符串为 varint 长度 + UTF-8，角色版本为 varint 个数 + (角色ID, 版本) 对，
+ * 字符串列表为 varint 个数 + 字符串</p>
+ * <p>角色名称和权限列表只出现在旧格式的 UserPrincipal 中，新数据只有角色ID和版本（权限由 {@link RoleGrantStore} 填充），
+ * 因此角色ID即是权限的“内化编号”</p>
+ * <p>首字节 0xC7 不可能出现在 JSON 开头，读取时据此区分新旧格式</p>
+ */
+public final class UserPrincipalCodec {
+
+    /**
+     * 魔数
+     */
+    static final byte MAGIC = (byte) 0xC7;
+
+    /**
+     * 当前格式版本，新增字段时递增并保留旧版本的解码分支
+     */
+    static final byte FORMAT_V1 = 1;
+
+    private static final int F_USER_ID = 1;
+    private static final int F_USERNAME = 1 << 1;
+    private static final int F_ROLE_VERSIONS = 1 << 2;
+    private static final int F_ROLES = 1 << 3;
+    private static final int F_PERMISSIONS = 1 << 4;
+    private static final int F_LOGIN_TIME = 1 << 5;
+    private static final int F_EXPIRE_AT = 1 << 6;
+
+    private UserPrincipalCodec() {
+    }
+
+    /**
+     * 是否为本编码格式
+     *
+     * @param bytes Redis 中的原始值
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    /**
+     * 编码
+     * 旧格式的角色名称和权限列表只在没有角色版本时写入，避免把填充后的派生数据写回 Redis
+     *
+     * @param principal 用户主体
+     * @return 二进制数据
+     */
+    public static byte[] encode(UserPrincipal principal) {
+        boolean legacy = principal.getRoleVersions() == null;
+        int flags = 0;
+        if (principal.getUserId() != null) {
+            flags |= F_USER_ID;
+        }
+        if (principal.getUsername() != null) {
+            flags |= F_USERNAME;
+        }
+        if (!legacy) {
+            flags |= F_ROLE_VERSIONS;
+        }
+        if (legacy && principal.getRoles() != null) {
+            flags |= F_ROLES;
+        }
+        if (legacy && principal.getPermissions() != null) {
+            flags |= F_PERMISSIONS;
+        }
+        if (principal.getLoginTime() != null) {
+            flags |= F_LOGIN_TIME;
+        }
+        if (principal.getExpireAt() != null) {
+            flags |= F_EXPIRE_AT;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        out.write(FORMAT_V1);
+        out.write(flags);
+        if ((flags & F_USER_ID) != 0) {
+            writeVarLong(out, principal.getUserId());
+        }
+        if ((flags & F_USERNAME) != 0) {
+            writeString(out, principal.getUsername());
+        }
+        if ((flags & F_ROLE_VERSIONS) != 0) {
+            Map<Long, Long> roleVersions = principal.getRoleVersions();
+            writeVarLong(out, roleVersions.size());
+            roleVersions.forEach((roleId, version) -> {
+                writeVarLong(out, roleId);
+                writeVarLong(out, version == null ? 0 : version);
+            });
+        }
+        if ((flags & F_ROLES) != 0) {
+            writeStrings(out, principal.getRoles());
+        }
+        if ((flags & F_PERMISSIONS) != 0) {
+            writeStrings(out, principal.getPermissions());
+        }
+        if ((flags & F_LOGIN_TIME) != 0) {
+            writeVarLong(out, principal.getLoginTime());
+        }
+        if ((flags & F_EXPIRE_AT) != 0) {
+            writeVarLong(out, principal.getExpireAt());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码
+     *
+     * @param bytes 二进制数据
+     * @return 用户主体
+     * @throws SerializationException 格式不正确或版本不支持
+     */
+    public static UserPrincipal decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new SerializationException("不是 UserPrincipal 二进制格式");
+        }
+        if (bytes[1] != FORMAT_V1) {
+            throw new SerializationException("不支持的 UserPrincipal 格式版本: " + bytes[1]);
+        }
+        try {
+            Reader in = new Reader(bytes, 2);
+            int flags = in.readByte();
+            UserPrincipal principal = new UserPrincipal();
+            if ((flags & F_USER_ID) != 0) {
+                principal.setUserId(in.readVarLong());
+            }
+            if ((flags & F_USERNAME) != 0) {
+                principal.setUsername(in.readString());
+            }
+            if ((flags & F_ROLE_VERSIONS) != 0) {
+                int size = in.readLength();
+                Map<Long, Long> roleVersions = new LinkedHashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    roleVersions.put(in.readVarLong(), in.readVarLong());
+                }
+                principal.setRoleVersions(roleVersions);
+            }
+            if ((flags & F_ROLES) != 0) {
+                principal.setRoles(in.readStrings());
+            }
+            if ((flags & F_PERMISSIONS) != 0) {
+                principal.setPermissions(in.readPermissionCodes());
+            }
+            if ((flags & F_LOGIN_TIME) != 0) {
+                principal.setLoginTime(in.readVarLong());
+            }
+            if ((flags & F_EXPIRE_AT) != 0) {
+                principal.setExpireAt(in.readVarLong());
+            }
+            return principal;
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("UserPrincipal 二进制数据不完整", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length);
+        out.write(utf8, 0, utf8.length);
+    }
+
+    private static void writeStrings(ByteArrayOutputStream out, List<String> values) {
+        writeVarLong(out, values.size());
+        values.forEach(value -> writeString(out, value));
+    }
+
+    /**
+     * 顺序读取器，越界时抛出 IndexOutOfBoundsException
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("varint 过长");
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new SerializationException("长度超出数据范围: " + length);
+            }
+            return (int) length;
+        }
+
+        private String readString() {
+            int length = readLength();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private List<String> readStrings() {
+            int size = readLength();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        /**
+         * 读取权限编码，格式正确的编码换成驻留的字符串，本地缓存中的各会话共用同一份
+         * （JVM 字符串常量表中无人引用的条目会被回收，外部写入的编码不会让它无限增长）
+         */
+        private List<String> readPermissionCodes() {
+            List<String> values = readStrings();
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i);
+                if (PermissionUtil.indexOfSeparator(value, true) > 0) {
+                    values.set(i, value.intern());
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dawnmoon.charon.common.security;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * UserPrincipal 的 Redis 值序列化器
+ * 写入使用 {@link UserPrincipalCodec} 二进制编码，读取时按首字节识别格式，旧的 JSON 格式交给 JSON 序列化器
+ *
+ * <p>升级后已有的 JSON Token 无需迁移，随重新登录或权限同步改写逐步变为二进制格式</p>
+ * <p>在都支持角色版本格式的版本之间滚动升级时，若旧节点还不能读取二进制格式，可先关闭 app.security.token.binary-codec，
+ * 全部节点升级后再开启；从不支持角色版本格式的版本升级时关闭它也无济于事，见 {@link UserPrincipal}</p>
+ */
+public class UserPrincipalRedisSerializer implements RedisSerializer<UserPrincipal> {
+
+    private final RedisSerializer<Object> json;
+    private final boolean writeBinary;
+
+    /**
+     * @param json        读取旧格式（及关闭二进制写入时写入）使用的 JSON 序列化器
+     * @param writeBinary 是否以二进制格式写入
+     */
+    public UserPrincipalRedisSerializer(RedisSerializer<Object> json, boolean writeBinary) {
+        this.json = json;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(UserPrincipal value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        return writeBinary ? UserPrincipalCodec.encode(value) : json.serialize(value);
+    }
+
+    @Override
+    public UserPrincipal deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (UserPrincipalCodec.isEncoded(bytes)) {
+            return UserPrincipalCodec.decode(bytes);
+        }
+        Object value = json.deserialize(bytes);
+        if (value != null && !(value instanceof UserPrincipal)) {
+            throw new SerializationException("不是 UserPrincipal: " + value.getClass().getName());
+        }
+        return (UserPrincipal) value;
+    }
+}
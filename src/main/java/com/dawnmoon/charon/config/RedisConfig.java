@@ -1,13 +1,17 @@
 package com.dawnmoon.charon.config;
 
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.common.security.UserPrincipalRedisSerializer;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -19,22 +23,17 @@ public class RedisConfig {
 
     /**
      * 配置 RedisTemplate
-     * 使用 GenericJackson2JsonRedisSerializer 序列化对象
+     * 使用 GenericJackson2JsonRedisSerializer 序列化对象，用于没有专用模板的通用数据（角色权限集、死信队列、失效广播等）
+     * Token 相关的 key 使用 StringRedisTemplate 和 {@link #principalRedisTemplate}，见 TokenStore
      */
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
-        // 配置 ObjectMapper
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        // 启用默认类型（存储类型信息，用于反序列化）
-        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-
         // 使用 GenericJackson2JsonRedisSerializer 来序列化和反序列化 redis 的 value 值
         // Spring Data Redis 3.0+ 推荐使用此方式，通过构造函数传入 ObjectMapper
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(mapper);
+        GenericJackson2JsonRedisSerializer serializer = jsonSerializer();
 
         // String 序列化
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
@@ -51,5 +50,45 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
 
+    /**
+     * Token → UserPrincipal 专用模板
+     * 值使用紧凑二进制格式，可读取旧的 JSON 格式
+     */
+    @Bean
+    public RedisTemplate<String, UserPrincipal> principalRedisTemplate(
+            RedisConnectionFactory connectionFactory,
+            @Value("${app.security.token.binary-codec:true}") boolean binaryCodec) {
+        RedisTemplate<String, UserPrincipal> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new UserPrincipalRedisSerializer(jsonSerializer(), binaryCodec));
+        // 只存储 String → UserPrincipal，不启用 JDK 默认序列化器
+        template.setEnableDefaultSerializer(false);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * 带默认类型信息的 JSON 序列化器
+     */
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        // 配置 ObjectMapper
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        // 启用默认类型（存储类型信息，用于反序列化）
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
+
+    /**
+     * Redis 消息监听容器
+     * 用于订阅集群内的认证缓存失效广播
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
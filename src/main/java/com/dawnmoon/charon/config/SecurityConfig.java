@@ -47,6 +47,19 @@ public class SecurityConfig {
             "/api/mq/**"
     };
 
+    /**
+     * 白名单中只允许管理员访问的管理端点（可修改状态，如重放权限同步死信），需在白名单之前匹配
+     */
+    private static final String[] ADMIN_ACTUATOR = {
+        "/actuator/permissionsync",
+        "/actuator/permissionsync/**"
+    };
+
+    /**
+     * 可访问管理端点的角色（对应 sys_role.role_name）
+     */
+    private static final String[] ADMIN_ROLES = {"SUPER_ADMIN", "ADMIN"};
+
     /**
      * 配置安全过滤器链
      */
@@ -58,6 +71,7 @@ public class SecurityConfig {
 
             // 配置授权规则
             .authorizeHttpRequests(authorize -> authorize
+                .requestMatchers(ADMIN_ACTUATOR).hasAnyRole(ADMIN_ROLES)
                 .requestMatchers(AUTH_WHITELIST).permitAll()
                 .anyRequest().authenticated()
             )
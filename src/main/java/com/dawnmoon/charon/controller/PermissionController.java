@@ -7,6 +7,7 @@ import com.dawnmoon.charon.model.request.PermissionRequests;
 import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.model.response.PermissionResponse;
 import com.dawnmoon.charon.service.PermissionService;
+import com.dawnmoon.charon.util.PageUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,8 +16,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.stream.Collectors;
-
 /**
  * 权限管理 Controller
  */
@@ -95,18 +94,11 @@ public class PermissionController {
         PageResponse<Permission> page = permissionService.listPermissions(
                 request.getPageNum(),
                 request.getPageSize(),
-                request.getKeyword());
-
-        PageResponse<PermissionResponse> response = new PageResponse<>();
-        response.setTotal(page.getTotal());
-        response.setPageNum(page.getPageNum());
-        response.setPageSize(page.getPageSize());
-        response.setPages(page.getPages());
-        response.setList(page.getList().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList()));
+                request.getKeyword(),
+                request.getCursor(),
+                request.getCountMode());
 
-        return ApiResponse.success(response);
+        return ApiResponse.success(PageUtil.convert(page, this::convertToResponse));
     }
 
     @Operation(summary = "根据权限编码获取权限", description = "通过权限编码查询权限信息")
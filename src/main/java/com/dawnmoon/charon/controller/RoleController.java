@@ -13,6 +13,7 @@ import com.dawnmoon.charon.model.response.RoleResponse;
 import com.dawnmoon.charon.model.response.UserResponse;
 import com.dawnmoon.charon.service.RoleService;
 import com.dawnmoon.charon.service.UserRoleService;
+import com.dawnmoon.charon.util.PageUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -101,19 +102,12 @@ public class RoleController {
         PageResponse<Role> page = roleService.listRoles(
                 request.getPageNum(),
                 request.getPageSize(),
-                request.getKeyword()
+                request.getKeyword(),
+                request.getCursor(),
+                request.getCountMode()
         );
 
-        PageResponse<RoleResponse> response = new PageResponse<>();
-        response.setTotal(page.getTotal());
-        response.setPageNum(page.getPageNum());
-        response.setPageSize(page.getPageSize());
-        response.setPages(page.getPages());
-        response.setList(page.getList().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList()));
-
-        return ApiResponse.success(response);
+        return ApiResponse.success(PageUtil.convert(page, this::convertToResponse));
     }
 
     @Operation(summary = "根据角色编码获取角色", description = "通过角色编码查询角色信息")
@@ -155,16 +149,19 @@ public class RoleController {
         return ApiResponse.success(responses);
     }
 
-    @Operation(summary = "获取角色的所有用户", description = "查询指定角色的所有用户")
+    @Operation(summary = "分页获取角色的用户", description = "分页查询指定角色的用户")
     @RequirePermission("ROLE:VIEW")
     @GetMapping("/{roleId}/users")
-    public ApiResponse<List<UserResponse>> getRoleUsers(
-            @Parameter(description = "角色ID") @PathVariable Long roleId) {
-        List<User> users = userRoleService.getUsersByRoleId(roleId);
-        List<UserResponse> responses = users.stream()
-                .map(this::convertUserToResponse)
-                .collect(Collectors.toList());
-        return ApiResponse.success(responses);
+    public ApiResponse<PageResponse<UserResponse>> getRoleUsers(
+            @Parameter(description = "角色ID") @PathVariable Long roleId,
+            @Valid RoleRequests.UserQueryRequest request) {
+        PageResponse<User> page = userRoleService.getUsersByRoleId(
+                roleId,
+                request.getPageNum(),
+                request.getPageSize()
+        );
+
+        return ApiResponse.success(PageUtil.convert(page, this::convertUserToResponse));
     }
 
     /**
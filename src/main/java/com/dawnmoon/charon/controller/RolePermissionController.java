@@ -5,10 +5,12 @@ import com.dawnmoon.charon.common.security.RequirePermission;
 import com.dawnmoon.charon.model.entity.Permission;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.request.PermissionRequests;
+import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.model.response.PermissionResponse;
 import com.dawnmoon.charon.model.response.RoleResponse;
 import com.dawnmoon.charon.service.PermissionService;
 import com.dawnmoon.charon.service.RolePermissionService;
+import com.dawnmoon.charon.util.PageUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -91,24 +93,28 @@ public class RolePermissionController {
         return getRolePermissions(roleId);
     }
 
-    @Operation(summary = "获取拥有某权限的所有角色", description = "查询拥有指定权限的所有角色")
+    @Operation(summary = "分页获取拥有某权限的角色", description = "分页查询拥有指定权限的角色")
     @RequirePermission("PERMISSION:VIEW")
     @GetMapping("/permission/{permissionId}")
-    public ApiResponse<List<RoleResponse>> getPermissionRoles(
-            @Parameter(description = "权限ID") @PathVariable Long permissionId) {
-        List<Role> roles = rolePermissionService.getRolesByPermissionId(permissionId);
-        List<RoleResponse> responses = roles.stream()
-                .map(this::convertToRoleResponse)
-                .collect(Collectors.toList());
-        return ApiResponse.success(responses);
+    public ApiResponse<PageResponse<RoleResponse>> getPermissionRoles(
+            @Parameter(description = "权限ID") @PathVariable Long permissionId,
+            @Valid PermissionRequests.RoleQueryRequest request) {
+        PageResponse<Role> page = rolePermissionService.getRolesByPermissionId(
+                permissionId,
+                request.getPageNum(),
+                request.getPageSize()
+        );
+
+        return ApiResponse.success(PageUtil.convert(page, this::convertToRoleResponse));
     }
 
-    @Operation(summary = "获取拥有某权限的所有角色（兼容路径）", description = "查询拥有指定权限的所有角色")
+    @Operation(summary = "分页获取拥有某权限的角色（兼容路径）", description = "分页查询拥有指定权限的角色")
     @RequirePermission("PERMISSION:VIEW")
     @GetMapping("/permission/{permissionId}/roles")
-    public ApiResponse<List<RoleResponse>> getPermissionRolesAlias(
-            @Parameter(description = "权限ID") @PathVariable Long permissionId) {
-        return getPermissionRoles(permissionId);
+    public ApiResponse<PageResponse<RoleResponse>> getPermissionRolesAlias(
+            @Parameter(description = "权限ID") @PathVariable Long permissionId,
+            @Valid PermissionRequests.RoleQueryRequest request) {
+        return getPermissionRoles(permissionId, request);
     }
 
     @Operation(summary = "分配权限给角色（兼容路径）", description = "批量分配权限给指定角色")
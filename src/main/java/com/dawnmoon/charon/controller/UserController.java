@@ -1,8 +1,10 @@
 package com.dawnmoon.charon.controller;
 
 import com.dawnmoon.charon.common.api.ApiResponse;
+import com.dawnmoon.charon.common.enums.CountMode;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.common.security.PasswordHashExecutor;
 import com.dawnmoon.charon.common.security.RequirePermission;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.entity.User;
@@ -12,7 +14,7 @@ import com.dawnmoon.charon.model.response.RoleResponse;
 import com.dawnmoon.charon.model.response.UserResponse;
 import com.dawnmoon.charon.service.RoleService;
 import com.dawnmoon.charon.service.UserService;
-import com.dawnmoon.charon.util.CryptoUtil;
+import com.dawnmoon.charon.util.PageUtil;
 import com.dawnmoon.charon.util.SecurityUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -42,6 +44,7 @@ public class UserController {
     private final UserService userService;
     private final RoleService roleService;
     private final com.dawnmoon.charon.service.UserRoleService userRoleService;
+    private final PasswordHashExecutor passwordHashExecutor;
 
     @Operation(
         summary = "分页查询用户列表",
@@ -53,21 +56,15 @@ public class UserController {
             @Parameter(description = "页码", example = "1") @RequestParam(defaultValue = "1") Integer pageNum,
             @Parameter(description = "每页大小", example = "10") @RequestParam(defaultValue = "10") Integer pageSize,
             @Parameter(description = "关键词（用户名、真实姓名、手机号、邮箱）", example = "张三") @RequestParam(required = false) String keyword,
-            @Parameter(description = "账号状态：0-启用，1-禁用", example = "0") @RequestParam(required = false) Integer status
+            @Parameter(description = "账号状态：0-启用，1-禁用", example = "0") @RequestParam(required = false) Integer status,
+            @Parameter(description = "游标（上一页响应中的 nextCursor），传入时按游标翻页并忽略页码") @RequestParam(required = false) String cursor,
+            @Parameter(description = "总数统计方式：EXACT-精确统计（默认），NONE-不统计，ESTIMATED-估算", example = "EXACT") @RequestParam(defaultValue = "EXACT") CountMode countMode
     ) {
-        log.info("分页查询用户列表 - pageNum: {}, pageSize: {}, keyword: {}, status: {}", pageNum, pageSize, keyword, status);
-        PageResponse<User> pageResponse = userService.list(pageNum, pageSize, keyword);
+        log.info("分页查询用户列表 - pageNum: {}, pageSize: {}, keyword: {}, status: {}, cursor: {}, countMode: {}", pageNum, pageSize, keyword, status, cursor, countMode);
+        PageResponse<User> pageResponse = userService.list(pageNum, pageSize, keyword, cursor, countMode);
         
         // 转换为 UserResponse
-        PageResponse<UserResponse> result = new PageResponse<>(
-                pageResponse.getTotal(),
-                pageResponse.getPageNum(),
-                pageResponse.getPageSize(),
-                pageResponse.getPages(),
-                pageResponse.getList().stream()
-                        .map(this::convertToResponse)
-                        .collect(Collectors.toList())
-        );
+        PageResponse<UserResponse> result = PageUtil.convert(pageResponse, this::convertToResponse);
         
         return ApiResponse.success(result);
     }
@@ -107,7 +104,7 @@ public class UserController {
         BeanUtils.copyProperties(request, user);
         
         // 加密密码
-        user.setPassword(CryptoUtil.bcryptEncode(request.getPassword()));
+        user.setPassword(passwordHashExecutor.encode(request.getPassword()));
         
         userService.create(user);
 
@@ -318,12 +315,12 @@ public class UserController {
         }
         
         // 验证旧密码
-        if (!CryptoUtil.bcryptMatches(request.getOldPassword(), user.getPassword())) {
+        if (!passwordHashExecutor.matches(request.getOldPassword(), user.getPassword())) {
             throw new BusinessException(ErrorCode.BUSINESS_ERROR, "旧密码不正确");
         }
         
         // 更新密码
-        user.setPassword(CryptoUtil.bcryptEncode(request.getNewPassword()));
+        user.setPassword(passwordHashExecutor.encode(request.getNewPassword()));
         userService.update(user);
         
         log.info("用户修改密码成功：userId={}", currentUserId);
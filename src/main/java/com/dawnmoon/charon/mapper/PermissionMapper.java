@@ -3,11 +3,13 @@ package com.dawnmoon.charon.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.search.KeywordSearch;
 import com.dawnmoon.charon.model.entity.Permission;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,10 +28,42 @@ public interface PermissionMapper extends BaseMapper<Permission> {
     @Select("SELECT * FROM sys_permission WHERE permission_code = #{permissionCode} AND is_deleted = 0")
     Permission selectByPermissionCode(@Param("permissionCode") String permissionCode);
 
+    /**
+     * 查询所有未删除的权限编码（按ID排序，用于构建权限编码注册表） - 简单查询，使用注解
+     */
+    @Select("SELECT permission_code FROM sys_permission WHERE is_deleted = 0 ORDER BY id")
+    List<String> selectAllPermissionCodes();
+
+    /**
+     * 查询所有未删除权限的ID和编码（用于构建角色权限图） - 简单查询，使用注解
+     */
+    @Select("SELECT id, permission_code FROM sys_permission WHERE is_deleted = 0")
+    List<Permission> selectAllPermissions();
+
     /**
      * 根据关键词分页查询权限列表 - 复杂查询，使用XML实现（支持模糊搜索）
      */
-    IPage<Permission> selectPermissionsByKeyword(Page<Permission> page, @Param("keyword") String keyword);
+    IPage<Permission> selectPermissionsByKeyword(Page<Permission> page, @Param("search") KeywordSearch search);
+
+    /**
+     * 查询关键词倒排索引所需的字段（MEMORY 搜索模式全量重建索引时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, permission_code, permission_name, description FROM sys_permission WHERE is_deleted = 0")
+    List<Permission> selectSearchDocuments();
+
+    /**
+     * 查询指定时间后更新过的行的倒排索引字段（MEMORY 搜索模式合并增量时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, permission_code, permission_name, description FROM sys_permission WHERE update_at >= #{since} AND is_deleted = 0")
+    List<Permission> selectSearchDocumentsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 根据关键词游标分页查询权限列表 - 复杂查询，使用XML实现（按 create_at、id 定位，不统计总数）
+     */
+    List<Permission> selectPermissionsByKeywordAfter(@Param("search") KeywordSearch search,
+                       @Param("cursorCreateAt") LocalDateTime cursorCreateAt,
+                       @Param("cursorId") Long cursorId,
+                       @Param("limit") int limit);
 
     /**
      * 根据角色ID查询权限列表 - 复杂查询，使用XML实现（多表JOIN）
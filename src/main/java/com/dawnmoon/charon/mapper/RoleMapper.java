@@ -3,11 +3,13 @@ package com.dawnmoon.charon.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.search.KeywordSearch;
 import com.dawnmoon.charon.model.entity.Role;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,6 +24,12 @@ public interface RoleMapper extends BaseMapper<Role> {
     @Select("SELECT * FROM sys_role WHERE role_name = #{roleCode} AND is_deleted = 0")
     Role selectByRoleCode(@Param("roleCode") String roleCode);
 
+    /**
+     * 查询所有未删除的角色（用于构建角色权限图） - 简单查询，使用注解
+     */
+    @Select("SELECT * FROM sys_role WHERE is_deleted = 0")
+    List<Role> selectAllRoles();
+
     /**
      * 根据用户ID查询角色列表
      */
@@ -30,7 +38,32 @@ public interface RoleMapper extends BaseMapper<Role> {
     /**
      * 根据关键词分页查询角色列表
      */
-    IPage<Role> selectRolesByKeyword(Page<Role> page, @Param("keyword") String keyword);
+    IPage<Role> selectRolesByKeyword(Page<Role> page, @Param("search") KeywordSearch search);
+
+    /**
+     * 查询关键词倒排索引所需的字段（MEMORY 搜索模式全量重建索引时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, role_name, description FROM sys_role WHERE is_deleted = 0")
+    List<Role> selectSearchDocuments();
+
+    /**
+     * 查询指定时间后更新过的行的倒排索引字段（MEMORY 搜索模式合并增量时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, role_name, description FROM sys_role WHERE update_at >= #{since} AND is_deleted = 0")
+    List<Role> selectSearchDocumentsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 根据关键词游标分页查询角色列表 - 复杂查询，使用XML实现（按 create_at、id 定位，不统计总数）
+     */
+    List<Role> selectRolesByKeywordAfter(@Param("search") KeywordSearch search,
+                       @Param("cursorCreateAt") LocalDateTime cursorCreateAt,
+                       @Param("cursorId") Long cursorId,
+                       @Param("limit") int limit);
+
+    /**
+     * 根据权限ID分页查询角色列表
+     */
+    IPage<Role> selectRolesByPermissionId(Page<Role> page, @Param("permissionId") Long permissionId);
 }
 
 
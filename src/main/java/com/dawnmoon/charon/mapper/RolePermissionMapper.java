@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,6 +32,23 @@ public interface RolePermissionMapper extends BaseMapper<RolePermission> {
     @Select("SELECT * FROM sys_role_permission WHERE role_id = #{roleId} AND is_deleted = 0")
     List<RolePermission> selectByRoleId(@Param("roleId") Long roleId);
 
+    /**
+     * 查询所有未删除的角色权限关联（用于构建角色权限图） - 简单查询，使用注解
+     */
+    @Select("SELECT role_id, permission_id FROM sys_role_permission WHERE is_deleted = 0")
+    List<RolePermission> selectAllLinks();
+
+    /**
+     * 根据角色ID集合批量查询权限关联 - 复杂查询，使用XML实现（IN 动态条件）
+     */
+    List<RolePermission> selectByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 查询角色已拥有的指定权限关联 - 复杂查询，使用XML实现（IN 动态条件）
+     */
+    List<RolePermission> selectByRoleIdAndPermissionIds(@Param("roleId") Long roleId,
+                                                        @Param("permissionIds") Collection<Long> permissionIds);
+
     /**
      * 根据权限ID查询所有角色关联 - 简单查询，使用注解
      */
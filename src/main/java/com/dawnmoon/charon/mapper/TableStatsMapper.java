@@ -0,0 +1,17 @@
+package com.dawnmoon.charon.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 表统计信息 Mapper 接口
+ * 读取数据库维护的表行数统计，用于分页总数估算 - 各数据库语法不同，使用XML实现（按 databaseId 区分）
+ */
+@Mapper
+public interface TableStatsMapper {
+
+    /**
+     * 查询表的估算行数（来自统计信息，包含逻辑删除的行，可能滞后）
+     */
+    Long selectEstimatedRowCount(@Param("tableName") String tableName);
+}
@@ -3,10 +3,15 @@ package com.dawnmoon.charon.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.search.KeywordSearch;
 import com.dawnmoon.charon.model.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 用户 Mapper 接口
@@ -24,6 +29,15 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT * FROM sys_user WHERE username = #{username} AND is_deleted = 0")
     User selectByUsername(@Param("username") String username);
 
+    /**
+     * 替换密码哈希 - 简单更新，使用注解
+     * 仅当哈希值仍为 expectedPassword 时更新，避免覆盖并发修改的密码
+     */
+    @Update("UPDATE sys_user SET password = #{password} WHERE id = #{id} AND password = #{expectedPassword} AND is_deleted = 0")
+    int updatePasswordIfMatch(@Param("id") Long id,
+                              @Param("expectedPassword") String expectedPassword,
+                              @Param("password") String password);
+
     /**
      * 根据手机号查询用户 - 简单查询，使用注解
      */
@@ -39,5 +53,30 @@ public interface UserMapper extends BaseMapper<User> {
     /**
      * 根据关键词分页查询用户列表 - 复杂查询，使用XML实现（MyBatis-Plus 分页）
      */
-    IPage<User> selectUsersByKeyword(Page<User> page, @Param("keyword") String keyword);
+    IPage<User> selectUsersByKeyword(Page<User> page, @Param("search") KeywordSearch search);
+
+    /**
+     * 查询关键词倒排索引所需的字段（MEMORY 搜索模式全量重建索引时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, username, real_name, phone, email FROM sys_user WHERE is_deleted = 0")
+    List<User> selectSearchDocuments();
+
+    /**
+     * 查询指定时间后更新过的行的倒排索引字段（MEMORY 搜索模式合并增量时使用） - 简单查询，使用注解
+     */
+    @Select("SELECT id, username, real_name, phone, email FROM sys_user WHERE update_at >= #{since} AND is_deleted = 0")
+    List<User> selectSearchDocumentsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 根据关键词游标分页查询用户列表 - 复杂查询，使用XML实现（按 create_at、id 定位，不统计总数）
+     */
+    List<User> selectUsersByKeywordAfter(@Param("search") KeywordSearch search,
+                       @Param("cursorCreateAt") LocalDateTime cursorCreateAt,
+                       @Param("cursorId") Long cursorId,
+                       @Param("limit") int limit);
+
+    /**
+     * 根据角色ID分页查询用户列表 - 复杂查询，使用XML实现（多表JOIN + MyBatis-Plus 分页）
+     */
+    IPage<User> selectUsersByRoleId(Page<User> page, @Param("roleId") Long roleId);
 }
@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,6 +36,16 @@ public interface UserRoleMapper extends BaseMapper<UserRole> {
     @Select("SELECT * FROM sys_user_role WHERE role_id = #{roleId} AND is_deleted = 0")
     List<UserRole> selectByRoleId(@Param("roleId") Long roleId);
 
+    /**
+     * 根据用户ID集合批量查询角色关联 - 复杂查询，使用XML实现（IN 动态条件）
+     */
+    List<UserRole> selectByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 查询用户已拥有的指定角色关联 - 复杂查询，使用XML实现（IN 动态条件）
+     */
+    List<UserRole> selectByUserIdAndRoleIds(@Param("userId") Long userId, @Param("roleIds") Collection<Long> roleIds);
+
     /**
      * 根据用户ID和角色ID查询关联
      */
@@ -1,5 +1,7 @@
 package com.dawnmoon.charon.model.request;
 
+import com.dawnmoon.charon.common.enums.CountMode;
+import com.dawnmoon.charon.util.PermissionUtil;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -20,7 +22,7 @@ public class PermissionRequests {
 
         @Schema(description = "权限编码", example = "USER:CREATE")
         @NotBlank(message = "权限编码不能为空")
-        @Pattern(regexp = "^[A-Z][A-Z0-9_:]*$", message = "权限编码必须以大写字母开头,只能包含大写字母、数字、下划线和冒号")
+        @Pattern(regexp = PermissionUtil.PERMISSION_CODE_REGEX, message = "权限编码格式为 模块:操作,模块和操作只能包含大写字母和下划线,操作可以是 * 表示模块通配")
         @Size(min = 3, max = 100, message = "权限编码长度必须在3-100个字符之间")
         private String permissionCode;
 
@@ -42,7 +44,7 @@ public class PermissionRequests {
     public static class UpdateRequest {
 
         @Schema(description = "权限编码", example = "USER:CREATE")
-        @Pattern(regexp = "^[A-Z][A-Z0-9_:]*$", message = "权限编码必须以大写字母开头,只能包含大写字母、数字、下划线和冒号")
+        @Pattern(regexp = PermissionUtil.PERMISSION_CODE_REGEX, message = "权限编码格式为 模块:操作,模块和操作只能包含大写字母和下划线,操作可以是 * 表示模块通配")
         @Size(min = 3, max = 100, message = "权限编码长度必须在3-100个字符之间")
         private String permissionCode;
 
@@ -73,6 +75,29 @@ public class PermissionRequests {
         @Min(value = 1, message = "每页数量必须大于0")
         @Max(value = 100, message = "每页数量不能超过100")
         private Integer pageSize = 10;
+
+        @Schema(description = "游标（上一页响应中的 nextCursor），传入时按游标翻页并忽略页码")
+        private String cursor;
+
+        @Schema(description = "总数统计方式：EXACT-精确统计（默认），NONE-不统计，ESTIMATED-估算", example = "EXACT")
+        private CountMode countMode = CountMode.EXACT;
+    }
+
+    /**
+     * 分页查询拥有某权限的角色请求
+     */
+    @Data
+    @Schema(description = "分页查询拥有某权限的角色请求")
+    public static class RoleQueryRequest {
+
+        @Schema(description = "页码", example = "1")
+        @Min(value = 1, message = "页码必须大于0")
+        private Integer pageNum = 1;
+
+        @Schema(description = "每页数量", example = "10")
+        @Min(value = 1, message = "每页数量必须大于0")
+        @Max(value = 100, message = "每页数量不能超过100")
+        private Integer pageSize = 10;
     }
 
     /**
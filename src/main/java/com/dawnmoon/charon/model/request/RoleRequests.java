@@ -1,5 +1,6 @@
 package com.dawnmoon.charon.model.request;
 
+import com.dawnmoon.charon.common.enums.CountMode;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -75,6 +76,29 @@ public class RoleRequests {
         @Min(value = 1, message = "每页数量必须大于0")
         @Max(value = 100, message = "每页数量不能超过100")
         private Integer pageSize = 10;
+
+        @Schema(description = "游标（上一页响应中的 nextCursor），传入时按游标翻页并忽略页码")
+        private String cursor;
+
+        @Schema(description = "总数统计方式：EXACT-精确统计（默认），NONE-不统计，ESTIMATED-估算", example = "EXACT")
+        private CountMode countMode = CountMode.EXACT;
+    }
+
+    /**
+     * 分页查询角色下用户请求
+     */
+    @Data
+    @Schema(description = "分页查询角色下用户请求")
+    public static class UserQueryRequest {
+
+        @Schema(description = "页码", example = "1")
+        @Min(value = 1, message = "页码必须大于0")
+        private Integer pageNum = 1;
+
+        @Schema(description = "每页数量", example = "10")
+        @Min(value = 1, message = "每页数量必须大于0")
+        @Max(value = 100, message = "每页数量不能超过100")
+        private Integer pageSize = 10;
     }
 
     /**
@@ -11,6 +11,10 @@ import java.util.List;
 
 /**
  * 分页响应对象
+ * 支持两种分页方式：
+ * - 页码分页：total、pageNum、pages 有值
+ * - 游标分页：请求携带 cursor 时 total、pageNum、pages 为空，通过 nextCursor 翻页
+ * countMode 为 NONE 时 total、pages 为空，ESTIMATED 时 total 为估算值（estimated = true）
  */
 @Data
 @Schema(description = "分页响应")
@@ -35,6 +39,15 @@ public class PageResponse<T> implements Serializable {
 
     @Schema(description = "数据列表")
     private List<T> list;
+
+    @Schema(description = "下一页游标，为空表示没有下一页；可作为 cursor 参数继续翻页")
+    private String nextCursor;
+
+    @Schema(description = "是否有下一页")
+    private Boolean hasNext;
+
+    @Schema(description = "总记录数是否为估算值")
+    private Boolean estimated;
 }
 
 
@@ -2,6 +2,7 @@ package com.dawnmoon.charon.service;
 
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.entity.RolePermission;
+import com.dawnmoon.charon.model.response.PageResponse;
 
 import java.util.List;
 
@@ -42,11 +43,13 @@ public interface RolePermissionService {
     List<RolePermission> getRolePermissions(Long roleId);
 
     /**
-     * 获取拥有某权限的所有角色
+     * 分页获取拥有某权限的角色
      *
      * @param permissionId 权限ID
-     * @return 角色列表
+     * @param pageNum      页码
+     * @param pageSize     每页数量
+     * @return 分页角色列表
      */
-    List<Role> getRolesByPermissionId(Long permissionId);
+    PageResponse<Role> getRolesByPermissionId(Long permissionId, Integer pageNum, Integer pageSize);
 }
 
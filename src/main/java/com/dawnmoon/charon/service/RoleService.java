@@ -1,5 +1,6 @@
 package com.dawnmoon.charon.service;
 
+import com.dawnmoon.charon.common.enums.CountMode;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.response.PageResponse;
 
@@ -46,9 +47,11 @@ public interface RoleService {
      * @param pageNum  页码
      * @param pageSize 每页大小
      * @param keyword  关键词（角色名称或描述）
+     * @param cursor    游标（为空时使用页码分页，否则忽略 pageNum 按游标翻页）
+     * @param countMode 总数统计方式（页码分页时有效，为空时精确统计）
      * @return 分页结果
      */
-    PageResponse<Role> listRoles(Integer pageNum, Integer pageSize, String keyword);
+    PageResponse<Role> listRoles(Integer pageNum, Integer pageSize, String keyword, String cursor, CountMode countMode);
 
     /**
      * 根据角色编码获取角色
@@ -0,0 +1,21 @@
+package com.dawnmoon.charon.service;
+
+import java.util.function.Supplier;
+
+/**
+ * 表统计服务接口
+ * 为分页查询提供估算总数，避免每次请求都执行 COUNT(*)
+ */
+public interface TableStatsService {
+
+    /**
+     * 估算分页总数
+     * 无关键词时读取表统计信息；有关键词（或统计信息不可用）时执行一次精确统计并短时缓存
+     *
+     * @param tableName  表名
+     * @param keyword    关键词
+     * @param exactCount 精确统计
+     * @return 估算总数
+     */
+    long estimateTotal(String tableName, String keyword, Supplier<Long> exactCount);
+}
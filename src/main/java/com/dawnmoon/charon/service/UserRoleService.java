@@ -2,6 +2,7 @@ package com.dawnmoon.charon.service;
 
 import com.dawnmoon.charon.model.entity.User;
 import com.dawnmoon.charon.model.entity.UserRole;
+import com.dawnmoon.charon.model.response.PageResponse;
 
 import java.util.List;
 
@@ -42,11 +43,13 @@ public interface UserRoleService {
     List<UserRole> getUserRoles(Long userId);
 
     /**
-     * 获取拥有某角色的所有用户
+     * 分页获取拥有某角色的用户
      *
-     * @param roleId 角色ID
-     * @return 用户列表
+     * @param roleId   角色ID
+     * @param pageNum  页码
+     * @param pageSize 每页数量
+     * @return 分页用户列表
      */
-    List<User> getUsersByRoleId(Long roleId);
+    PageResponse<User> getUsersByRoleId(Long roleId, Integer pageNum, Integer pageSize);
 }
 
@@ -1,5 +1,6 @@
 package com.dawnmoon.charon.service;
 
+import com.dawnmoon.charon.common.enums.CountMode;
 import com.dawnmoon.charon.model.entity.User;
 import com.dawnmoon.charon.model.response.PageResponse;
 
@@ -28,6 +29,12 @@ public interface UserService {
      */
     void update(User user);
 
+    /**
+     * 替换密码哈希（用于登录时按新的算法参数重新计算）
+     * 仅当哈希值仍为 expectedPassword 时更新，返回是否更新成功
+     */
+    boolean rehashPassword(Long id, String expectedPassword, String password);
+
     /**
      * 删除用户（逻辑删除）
      */
@@ -35,8 +42,10 @@ public interface UserService {
 
     /**
      * 分页查询用户列表
+     * cursor 为空时使用页码分页，否则忽略 pageNum 按游标翻页
+     * countMode 控制页码分页时的总数统计方式，为空时精确统计
      */
-    PageResponse<User> list(Integer pageNum, Integer pageSize, String keyword);
+    PageResponse<User> list(Integer pageNum, Integer pageSize, String keyword, String cursor, CountMode countMode);
 }
 
 
@@ -2,25 +2,27 @@ package com.dawnmoon.charon.service.serviceImpl;
 
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.common.exception.TooManyRequestsException;
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationBus;
+import com.dawnmoon.charon.common.security.PasswordHashExecutor;
+import com.dawnmoon.charon.common.security.RbacGraph;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.TokenLocalCache;
+import com.dawnmoon.charon.common.security.TokenStore;
 import com.dawnmoon.charon.common.security.UserPrincipal;
-import com.dawnmoon.charon.mapper.PermissionMapper;
-import com.dawnmoon.charon.model.entity.Permission;
 import com.dawnmoon.charon.model.entity.User;
 import com.dawnmoon.charon.model.request.AuthRequests;
 import com.dawnmoon.charon.service.AuthService;
 import com.dawnmoon.charon.service.UserService;
-import com.dawnmoon.charon.util.CryptoUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * 认证服务实现类
@@ -30,18 +32,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final TokenStore tokenStore;
     private final UserService userService;
-    private final PermissionMapper permissionMapper;
-
-    @Value("${app.security.token.prefix:token:}")
-    private String tokenKeyPrefix;
+    private final RbacGraph rbacGraph;
+    private final RoleGrantStore roleGrantStore;
+    private final TokenLocalCache tokenLocalCache;
+    private final AuthCacheInvalidationBus authCacheInvalidationBus;
+    private final PasswordHashExecutor passwordHashExecutor;
 
     @Value("${app.security.token.ttl:86400}")
     private long tokenTtlSeconds;
 
-    private static final String USER_ID_TO_TOKEN_KEY_PREFIX = "user_id_to_token:";
-
     @Override
     public String login(AuthRequests.LoginRequest request) {
         // 1. 验证用户名
@@ -50,8 +51,8 @@ public class AuthServiceImpl implements AuthService {
             throw new BusinessException(ErrorCode.USERNAME_OR_PASSWORD_ERROR);
         }
 
-        // 2. 验证密码
-        if (!CryptoUtil.bcryptMatches(request.getPassword(), user.getPassword())) {
+        // 2. 验证密码（在专用线程池中执行，繁忙时返回 429）
+        if (!passwordHashExecutor.matches(request.getPassword(), user.getPassword())) {
             throw new BusinessException(ErrorCode.USERNAME_OR_PASSWORD_ERROR);
         }
 
@@ -60,55 +61,61 @@ public class AuthServiceImpl implements AuthService {
             throw new BusinessException(ErrorCode.USER_ACCOUNT_DISABLED);
         }
 
-        // 4. 查找并踢出旧设备
-        Long userId = user.getId();
-        String oldToken = (String) redisTemplate.opsForValue()
-            .get(USER_ID_TO_TOKEN_KEY_PREFIX + userId);
-
-        if (StringUtils.hasText(oldToken)) {
-            // 删除旧 Token，踢出先登录的设备
-            redisTemplate.delete(tokenKeyPrefix + oldToken);
-            log.info("用户 [{}] 在新设备登录，旧设备已被踢出", userId);
-        }
+        // 密码哈希的算法或参数已调整时，用本次登录的明文重新计算（尽力而为，失败不影响登录）
+        rehashPasswordIfNeeded(user, request.getPassword());
 
-        // 5. 生成新 Token
+        // 4. 生成新 Token
+        Long userId = user.getId();
         String newToken = UUID.randomUUID().toString().replace("-", "");
 
-        // 6. 查询用户权限（从数据库）
-        List<Permission> permissionList = permissionMapper.selectPermissionsByUserId(userId);
-        List<String> permissions = permissionList.stream()
-                .map(Permission::getPermissionCode)
-                .collect(Collectors.toList());
+        // 5. 查询用户角色（只查询 sys_user_role），记录各角色权限集的当前版本
+        Map<Long, Long> roleVersions = roleGrantStore.versionsOf(rbacGraph.roleIdsOfUser(userId));
 
-        // 7. 创建 UserPrincipal 对象
+        // 6. 创建 UserPrincipal 对象（只包含角色ID和版本，权限在使用时按角色权限集填充）
+        long now = System.currentTimeMillis();
         UserPrincipal userPrincipal = new UserPrincipal(
             userId,
             user.getUsername(),
-            user.getRoles(),
-                permissions,
-                System.currentTimeMillis()
+            roleVersions,
+                now,
+                now + tokenTtlSeconds * 1000
         );
 
-        // 8. 存储 Token → UserPrincipal 映射（设置过期时间）
-        redisTemplate.opsForValue().set(
-            tokenKeyPrefix + newToken,
-            userPrincipal,
-            tokenTtlSeconds,
-            TimeUnit.SECONDS
-        );
+        // 7. 原子地写入新会话，超出最大设备数时淘汰最久未续期的会话（单次往返，并发登录不会遗留孤立 Token）
+        List<String> evictedTokens = tokenStore.login(newToken, userPrincipal, tokenTtlSeconds);
 
-        // 9. 存储 UserId → Token 映射（设置相同的过期时间）
-        redisTemplate.opsForValue().set(
-            USER_ID_TO_TOKEN_KEY_PREFIX + userId,
-            newToken,
-            tokenTtlSeconds,
-            TimeUnit.SECONDS
-        );
+        for (String evictedToken : evictedTokens) {
+            tokenLocalCache.invalidate(evictedToken);
+            authCacheInvalidationBus.publishToken(evictedToken);
+        }
+        if (!evictedTokens.isEmpty()) {
+            log.info("用户 [{}] 在新设备登录，{} 个旧设备已被踢出", userId, evictedTokens.size());
+        }
 
-        log.info("用户 [{}] 登录成功，拥有 {} 个权限，Token: {}...", userId, permissions.size(), newToken.substring(0, 7));
+        log.info("用户 [{}] 登录成功，拥有 {} 个角色，Token: {}...", userId, roleVersions.size(), newToken.substring(0, 7));
         return newToken;
     }
 
+    /**
+     * 登录成功后按当前算法和参数重新计算密码哈希
+     * 密码哈希线程池繁忙时跳过，下次登录再试；哈希值已被并发修改时不覆盖
+     */
+    private void rehashPasswordIfNeeded(User user, String rawPassword) {
+        if (!passwordHashExecutor.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String rehashed = passwordHashExecutor.encode(rawPassword);
+            if (userService.rehashPassword(user.getId(), user.getPassword(), rehashed)) {
+                log.info("用户 [{}] 的密码哈希已按新参数重新计算", user.getId());
+            }
+        } catch (TooManyRequestsException e) {
+            log.debug("密码哈希线程池繁忙，跳过重新计算: userId={}", user.getId());
+        } catch (Exception e) {
+            log.warn("重新计算密码哈希失败: userId={}, error={}", user.getId(), e.getMessage());
+        }
+    }
+
     @Override
     public void register(AuthRequests.RegisterRequest request) {
         // 1. 检查用户名是否已存在
@@ -120,7 +127,7 @@ public class AuthServiceImpl implements AuthService {
         // 2. 创建新用户
         User user = new User(
                 request.getUsername(),
-                CryptoUtil.bcryptEncode(request.getPassword()),
+                passwordHashExecutor.encode(request.getPassword()),
                 request.getRealName(),
                 request.getPhone(),
                 request.getEmail(),
@@ -142,9 +149,11 @@ public class AuthServiceImpl implements AuthService {
             return;
         }
 
-        // 1. 获取用户信息
-        String tokenKey = tokenKeyPrefix + token;
-        UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue().get(tokenKey);
+        // 1. 获取用户信息（认证过滤器已放入本地缓存，通常无需访问 Redis）
+        UserPrincipal userPrincipal = tokenLocalCache.get(token);
+        if (userPrincipal == null) {
+            userPrincipal = tokenStore.getPrincipal(token);
+        }
 
         if (userPrincipal == null) {
             log.warn("退出登录失败：Token 无效或已过期");
@@ -153,11 +162,10 @@ public class AuthServiceImpl implements AuthService {
 
         Long userId = userPrincipal.getUserId();
 
-        // 2. 删除 Token → UserPrincipal 映射
-        redisTemplate.delete(tokenKey);
-
-        // 3. 删除 UserId → Token 映射
-        redisTemplate.delete(USER_ID_TO_TOKEN_KEY_PREFIX + userId);
+        // 2. 原子删除该会话，不影响同一用户在其他设备上的会话
+        tokenStore.logout(token, userId);
+        tokenLocalCache.invalidate(token);
+        authCacheInvalidationBus.publishToken(token);
 
         log.info("用户 [{}] 手动退出登录成功", userId);
     }
@@ -169,35 +177,32 @@ public class AuthServiceImpl implements AuthService {
             return;
         }
 
-        // 1. 根据 userId 查找当前有效的 Token
-        String token = (String) redisTemplate.opsForValue()
-            .get(USER_ID_TO_TOKEN_KEY_PREFIX + targetUserId);
+        // 1. 原子地删除用户所有设备上的会话及 UserId → Token 映射
+        List<String> tokens = tokenStore.forceLogout(targetUserId);
 
-        if (!StringUtils.hasText(token)) {
+        if (tokens.isEmpty()) {
             log.warn("强制退出失败：用户 [{}] 当前未登录", targetUserId);
             return;
         }
 
-        // 2. 删除 Token → UserPrincipal 映射
-        redisTemplate.delete(tokenKeyPrefix + token);
-
-        // 3. 删除 UserId → Token 映射
-        redisTemplate.delete(USER_ID_TO_TOKEN_KEY_PREFIX + targetUserId);
+        // 2. 清除各节点的本地缓存
+        tokens.forEach(token -> {
+            tokenLocalCache.invalidate(token);
+            authCacheInvalidationBus.publishToken(token);
+        });
 
-        log.info("管理员强制用户 [{}] 退出登录成功", targetUserId);
+        log.info("管理员强制用户 [{}] 退出登录成功，共 {} 个会话", targetUserId, tokens.size());
     }
 
     @Override
     public Long getLoginTime(Long userId) {
-        String token = (String) redisTemplate.opsForValue()
-            .get(USER_ID_TO_TOKEN_KEY_PREFIX + userId);
+        String token = tokenStore.getToken(userId);
 
         if (!StringUtils.hasText(token)) {
             return null;
         }
 
-        UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue()
-            .get(tokenKeyPrefix + token);
+        UserPrincipal userPrincipal = tokenStore.getPrincipal(token);
 
         return userPrincipal != null ? userPrincipal.getLoginTime() : null;
     }
@@ -208,8 +213,7 @@ public class AuthServiceImpl implements AuthService {
             return null;
         }
 
-        String tokenKey = tokenKeyPrefix + token;
-        UserPrincipal userPrincipal = (UserPrincipal) redisTemplate.opsForValue().get(tokenKey);
+        UserPrincipal userPrincipal = tokenStore.getPrincipal(token);
 
         return userPrincipal != null ? userPrincipal.getUserId() : null;
     }
@@ -1,15 +1,20 @@
 package com.dawnmoon.charon.service.serviceImpl;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.enums.CountMode;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.common.search.KeywordSearch;
+import com.dawnmoon.charon.common.search.KeywordSearchResolver;
+import com.dawnmoon.charon.common.search.SearchTarget;
+import com.dawnmoon.charon.common.security.PermissionRegistry;
+import com.dawnmoon.charon.common.security.RbacGraph;
 import com.dawnmoon.charon.mapper.PermissionMapper;
 import com.dawnmoon.charon.mapper.RolePermissionMapper;
 import com.dawnmoon.charon.model.entity.Permission;
 import com.dawnmoon.charon.model.entity.RolePermission;
 import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.service.PermissionService;
+import com.dawnmoon.charon.service.TableStatsService;
 import com.dawnmoon.charon.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +34,10 @@ public class PermissionServiceImpl implements PermissionService {
 
     private final PermissionMapper permissionMapper;
     private final RolePermissionMapper rolePermissionMapper;
+    private final PermissionRegistry permissionRegistry;
+    private final RbacGraph rbacGraph;
+    private final TableStatsService tableStatsService;
+    private final KeywordSearchResolver keywordSearchResolver;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -43,6 +52,10 @@ public class PermissionServiceImpl implements PermissionService {
         // 2. 创建权限
         permissionMapper.insert(permission);
         log.info("创建权限成功: id={}, permissionCode={}", permission.getId(), permission.getPermissionCode());
+
+        // 3. 重建权限编码注册表，事务提交后刷新角色权限图并广播权限变更
+        permissionRegistry.refreshAfterCommit();
+        rbacGraph.refreshPermissionAfterCommit(permission.getId());
     }
 
     @Override
@@ -64,6 +77,10 @@ public class PermissionServiceImpl implements PermissionService {
         permission.setId(id);
         permissionMapper.updateById(permission);
         log.info("更新权限成功: id={}, permissionCode={}", id, permission.getPermissionCode());
+
+        // 4. 重建权限编码注册表，事务提交后刷新角色权限图并广播权限变更
+        permissionRegistry.refreshAfterCommit();
+        rbacGraph.refreshPermissionAfterCommit(id);
     }
 
     @Override
@@ -83,6 +100,10 @@ public class PermissionServiceImpl implements PermissionService {
         // 3. 删除权限（逻辑删除）
         permissionMapper.deleteById(id);
         log.info("删除权限成功: id={}, permissionCode={}", id, permission.getPermissionCode());
+
+        // 4. 重建权限编码注册表，事务提交后刷新角色权限图并广播权限变更
+        permissionRegistry.refreshAfterCommit();
+        rbacGraph.refreshPermissionAfterCommit(id);
     }
 
     @Override
@@ -96,10 +117,12 @@ public class PermissionServiceImpl implements PermissionService {
     }
 
     @Override
-    public PageResponse<Permission> listPermissions(Integer pageNum, Integer pageSize, String keyword) {
-        // 使用 MyBatis-Plus 分页插件
-        IPage<Permission> page = permissionMapper.selectPermissionsByKeyword(new Page<>(pageNum, pageSize), keyword);
-        return PageUtil.toPageResponse(page);
+    public PageResponse<Permission> listPermissions(Integer pageNum, Integer pageSize, String keyword, String cursor, CountMode countMode) {
+        KeywordSearch search = keywordSearchResolver.resolve(SearchTarget.PERMISSION, keyword);
+        return PageUtil.query(pageNum, pageSize, cursor, countMode,
+                page -> permissionMapper.selectPermissionsByKeyword(page, search),
+                (createAt, id, limit) -> permissionMapper.selectPermissionsByKeywordAfter(search, createAt, id, limit),
+                exactCount -> tableStatsService.estimateTotal("sys_permission", keyword, exactCount));
     }
 
     @Override
@@ -1,21 +1,24 @@
 package com.dawnmoon.charon.service.serviceImpl;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
-import com.dawnmoon.charon.common.security.PermissionCheckService;
+import com.dawnmoon.charon.common.security.RbacGraph;
 import com.dawnmoon.charon.mapper.PermissionMapper;
 import com.dawnmoon.charon.mapper.RoleMapper;
 import com.dawnmoon.charon.mapper.RolePermissionMapper;
 import com.dawnmoon.charon.model.entity.Permission;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.entity.RolePermission;
+import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.service.RolePermissionService;
+import com.dawnmoon.charon.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,7 +33,7 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     private final RolePermissionMapper rolePermissionMapper;
     private final RoleMapper roleMapper;
     private final PermissionMapper permissionMapper;
-    private final PermissionCheckService permissionCheckService;
+    private final RbacGraph rbacGraph;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -42,33 +45,38 @@ public class RolePermissionServiceImpl implements RolePermissionService {
             throw new BusinessException(ErrorCode.ROLE_NOT_FOUND);
         }
 
-        // 2. 批量分配权限
-        for (Long permissionId : permissionIds) {
-            // 检查权限是否存在
-            Permission permission = permissionMapper.selectById(permissionId);
-            if (permission == null) {
-                log.warn("权限不存在: permissionId={}", permissionId);
-                throw new BusinessException(ErrorCode.PERMISSION_NOT_FOUND);
-            }
-
-            // 检查是否已经分配
-            RolePermission existingRolePermission = rolePermissionMapper.selectByRoleIdAndPermissionId(roleId, permissionId);
-            if (existingRolePermission != null) {
-                log.warn("角色已拥有该权限: roleId={}, permissionId={}", roleId, permissionId);
-                throw new BusinessException(ErrorCode.ROLE_PERMISSION_ALREADY_EXISTS);
-            }
-
-            // 创建关联
+        // 2. 一次查询校验所有权限是否存在
+        List<Long> distinctPermissionIds = permissionIds.stream().distinct().toList();
+        if (distinctPermissionIds.isEmpty()) {
+            return;
+        }
+        List<Permission> permissions = permissionMapper.selectBatchIds(distinctPermissionIds);
+        if (permissions.size() != distinctPermissionIds.size()) {
+            log.warn("权限不存在: permissionIds={}, found={}", distinctPermissionIds, permissions.size());
+            throw new BusinessException(ErrorCode.PERMISSION_NOT_FOUND);
+        }
+
+        // 3. 一次查询检查是否已经分配
+        List<RolePermission> existingRolePermissions =
+                rolePermissionMapper.selectByRoleIdAndPermissionIds(roleId, distinctPermissionIds);
+        if (!existingRolePermissions.isEmpty()) {
+            log.warn("角色已拥有该权限: roleId={}, permissionIds={}", roleId,
+                    existingRolePermissions.stream().map(RolePermission::getPermissionId).toList());
+            throw new BusinessException(ErrorCode.ROLE_PERMISSION_ALREADY_EXISTS);
+        }
+
+        // 4. 批量创建关联（JDBC 批处理）
+        List<RolePermission> rolePermissions = distinctPermissionIds.stream().map(permissionId -> {
             RolePermission rolePermission = new RolePermission();
             rolePermission.setRoleId(roleId);
             rolePermission.setPermissionId(permissionId);
-            rolePermissionMapper.insert(rolePermission);
-            log.info("分配权限给角色成功: roleId={}, permissionId={}, rolePermissionId={}",
-                    roleId, permissionId, rolePermission.getId());
-        }
+            return rolePermission;
+        }).toList();
+        rolePermissionMapper.insert(rolePermissions);
+        log.info("分配权限给角色成功: roleId={}, permissionIds={}", roleId, distinctPermissionIds);
 
-        // 3. 更新该角色下所有用户的Redis缓存
-        permissionCheckService.updateRoleUsersPermissions(roleId);
+        // 5. 事务提交后刷新角色权限图，并以新版本写入该角色的权限集（与角色下的用户数无关）
+        rbacGraph.refreshRoleAfterCommit(roleId);
     }
 
     @Override
@@ -85,8 +93,8 @@ public class RolePermissionServiceImpl implements RolePermissionService {
         rolePermissionMapper.deleteById(rolePermission.getId());
         log.info("移除角色权限成功: roleId={}, permissionId={}", roleId, permissionId);
 
-        // 3. 更新该角色下所有用户的Redis缓存
-        permissionCheckService.updateRoleUsersPermissions(roleId);
+        // 3. 事务提交后刷新角色权限图，并以新版本写入该角色的权限集（与角色下的用户数无关）
+        rbacGraph.refreshRoleAfterCommit(roleId);
     }
 
     @Override
@@ -103,8 +111,8 @@ public class RolePermissionServiceImpl implements RolePermissionService {
         int count = rolePermissionMapper.deleteByRoleId(roleId);
         log.info("移除角色所有权限成功: roleId={}, count={}", roleId, count);
 
-        // 3. 更新该角色下所有用户的Redis缓存
-        permissionCheckService.updateRoleUsersPermissions(roleId);
+        // 3. 事务提交后刷新角色权限图，并以新版本写入该角色的权限集（与角色下的用户数无关）
+        rbacGraph.refreshRoleAfterCommit(roleId);
     }
 
     @Override
@@ -113,20 +121,9 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     }
 
     @Override
-    public List<Role> getRolesByPermissionId(Long permissionId) {
-        // 1. 查询该权限的所有角色关联
-        List<RolePermission> rolePermissions = rolePermissionMapper.selectByPermissionId(permissionId);
-
-        // 2. 查询角色信息
-        List<Role> roles = new ArrayList<>();
-        for (RolePermission rolePermission : rolePermissions) {
-            Role role = roleMapper.selectById(rolePermission.getRoleId());
-            if (role != null) {
-                roles.add(role);
-            }
-        }
-
-        return roles;
+    public PageResponse<Role> getRolesByPermissionId(Long permissionId, Integer pageNum, Integer pageSize) {
+        // 单次 JOIN 查询 + 分页，避免逐个查询角色
+        IPage<Role> page = roleMapper.selectRolesByPermissionId(new Page<>(pageNum, pageSize), permissionId);
+        return PageUtil.toPageResponse(page);
     }
 }
-
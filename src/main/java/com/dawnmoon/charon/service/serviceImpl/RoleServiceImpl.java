@@ -1,15 +1,19 @@
 package com.dawnmoon.charon.service.serviceImpl;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.enums.CountMode;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.common.search.KeywordSearch;
+import com.dawnmoon.charon.common.search.KeywordSearchResolver;
+import com.dawnmoon.charon.common.search.SearchTarget;
+import com.dawnmoon.charon.common.security.RbacGraph;
 import com.dawnmoon.charon.mapper.RoleMapper;
 import com.dawnmoon.charon.mapper.UserRoleMapper;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.entity.UserRole;
 import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.service.RoleService;
+import com.dawnmoon.charon.service.TableStatsService;
 import com.dawnmoon.charon.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +33,9 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleMapper roleMapper;
     private final UserRoleMapper userRoleMapper;
+    private final RbacGraph rbacGraph;
+    private final TableStatsService tableStatsService;
+    private final KeywordSearchResolver keywordSearchResolver;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -43,6 +50,9 @@ public class RoleServiceImpl implements RoleService {
         // 2. 创建角色
         roleMapper.insert(role);
         log.info("创建角色成功: id={}, roleCode={}", role.getId(), role.getRoleName());
+
+        // 3. 事务提交后刷新角色权限图并广播角色变更
+        rbacGraph.refreshRoleAfterCommit(role.getId());
     }
 
     @Override
@@ -64,6 +74,9 @@ public class RoleServiceImpl implements RoleService {
         role.setId(id);
         roleMapper.updateById(role);
         log.info("更新角色成功: id={}, roleCode={}", id, role.getRoleName());
+
+        // 4. 事务提交后刷新角色权限图并广播角色变更
+        rbacGraph.refreshRoleAfterCommit(id);
     }
 
     @Override
@@ -83,6 +96,9 @@ public class RoleServiceImpl implements RoleService {
         // 3. 删除角色（逻辑删除）
         roleMapper.deleteById(id);
         log.info("删除角色成功: id={}, roleCode={}", id, role.getRoleName());
+
+        // 4. 事务提交后刷新角色权限图并广播角色变更
+        rbacGraph.refreshRoleAfterCommit(id);
     }
 
     @Override
@@ -96,10 +112,12 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    public PageResponse<Role> listRoles(Integer pageNum, Integer pageSize, String keyword) {
-        // 使用 MyBatis-Plus 分页插件
-        IPage<Role> page = roleMapper.selectRolesByKeyword(new Page<>(pageNum, pageSize), keyword);
-        return PageUtil.toPageResponse(page);
+    public PageResponse<Role> listRoles(Integer pageNum, Integer pageSize, String keyword, String cursor, CountMode countMode) {
+        KeywordSearch search = keywordSearchResolver.resolve(SearchTarget.ROLE, keyword);
+        return PageUtil.query(pageNum, pageSize, cursor, countMode,
+                page -> roleMapper.selectRolesByKeyword(page, search),
+                (createAt, id, limit) -> roleMapper.selectRolesByKeywordAfter(search, createAt, id, limit),
+                exactCount -> tableStatsService.estimateTotal("sys_role", keyword, exactCount));
     }
 
     @Override
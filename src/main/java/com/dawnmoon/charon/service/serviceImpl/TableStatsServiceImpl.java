@@ -0,0 +1,57 @@
+package com.dawnmoon.charon.service.serviceImpl;
+
+import com.dawnmoon.charon.mapper.TableStatsMapper;
+import com.dawnmoon.charon.service.TableStatsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 表统计服务实现类
+ */
+@Slf4j
+@Service
+public class TableStatsServiceImpl implements TableStatsService {
+
+    private final TableStatsMapper tableStatsMapper;
+
+    /**
+     * 表名 + 关键词 → 总数
+     */
+    private final Cache<String, Long> totals;
+
+    public TableStatsServiceImpl(TableStatsMapper tableStatsMapper,
+                                 @Value("${app.page.count-cache.max-size:1000}") long maxSize,
+                                 @Value("${app.page.count-cache.ttl:60}") long ttlSeconds) {
+        this.tableStatsMapper = tableStatsMapper;
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public long estimateTotal(String tableName, String keyword, Supplier<Long> exactCount) {
+        boolean hasKeyword = keyword != null && !keyword.isEmpty();
+        String key = tableName + ":" + (hasKeyword ? keyword : "");
+        return totals.get(key, k -> {
+            if (!hasKeyword) {
+                try {
+                    Long estimated = tableStatsMapper.selectEstimatedRowCount(tableName);
+                    if (estimated != null) {
+                        return estimated;
+                    }
+                } catch (Exception e) {
+                    log.warn("读取表统计信息失败，改为精确统计: table={}, error={}", tableName, e.getMessage());
+                }
+            }
+            Long total = exactCount.get();
+            return total == null ? 0L : total;
+        });
+    }
+}
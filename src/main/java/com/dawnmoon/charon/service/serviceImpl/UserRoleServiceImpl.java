@@ -1,21 +1,25 @@
 package com.dawnmoon.charon.service.serviceImpl;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dawnmoon.charon.common.enums.ErrorCode;
 import com.dawnmoon.charon.common.exception.BusinessException;
-import com.dawnmoon.charon.common.security.PermissionCheckService;
+import com.dawnmoon.charon.common.security.PermissionChangedEvent;
 import com.dawnmoon.charon.mapper.RoleMapper;
 import com.dawnmoon.charon.mapper.UserMapper;
 import com.dawnmoon.charon.mapper.UserRoleMapper;
 import com.dawnmoon.charon.model.entity.Role;
 import com.dawnmoon.charon.model.entity.User;
 import com.dawnmoon.charon.model.entity.UserRole;
+import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.service.UserRoleService;
+import com.dawnmoon.charon.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,7 +34,7 @@ public class UserRoleServiceImpl implements UserRoleService {
     private final UserRoleMapper userRoleMapper;
     private final UserMapper userMapper;
     private final RoleMapper roleMapper;
-    private final PermissionCheckService permissionCheckService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -42,32 +46,37 @@ public class UserRoleServiceImpl implements UserRoleService {
             throw new BusinessException(ErrorCode.USER_NOT_FOUND);
         }
 
-        // 2. 批量分配角色
-        for (Long roleId : roleIds) {
-            // 检查角色是否存在
-            Role role = roleMapper.selectById(roleId);
-            if (role == null) {
-                log.warn("角色不存在: roleId={}", roleId);
-                throw new BusinessException(ErrorCode.ROLE_NOT_FOUND);
-            }
-
-            // 检查是否已经分配
-            UserRole existingUserRole = userRoleMapper.selectByUserIdAndRoleId(userId, roleId);
-            if (existingUserRole != null) {
-                log.warn("用户已拥有该角色: userId={}, roleId={}", userId, roleId);
-                throw new BusinessException(ErrorCode.USER_ROLE_ALREADY_EXISTS);
-            }
-
-            // 创建关联
+        // 2. 一次查询校验所有角色是否存在
+        List<Long> distinctRoleIds = roleIds.stream().distinct().toList();
+        if (distinctRoleIds.isEmpty()) {
+            return;
+        }
+        List<Role> roles = roleMapper.selectBatchIds(distinctRoleIds);
+        if (roles.size() != distinctRoleIds.size()) {
+            log.warn("角色不存在: roleIds={}, found={}", distinctRoleIds, roles.size());
+            throw new BusinessException(ErrorCode.ROLE_NOT_FOUND);
+        }
+
+        // 3. 一次查询检查是否已经分配
+        List<UserRole> existingUserRoles = userRoleMapper.selectByUserIdAndRoleIds(userId, distinctRoleIds);
+        if (!existingUserRoles.isEmpty()) {
+            log.warn("用户已拥有该角色: userId={}, roleIds={}", userId,
+                    existingUserRoles.stream().map(UserRole::getRoleId).toList());
+            throw new BusinessException(ErrorCode.USER_ROLE_ALREADY_EXISTS);
+        }
+
+        // 4. 批量创建关联（JDBC 批处理）
+        List<UserRole> userRoles = distinctRoleIds.stream().map(roleId -> {
             UserRole userRole = new UserRole();
             userRole.setUserId(userId);
             userRole.setRoleId(roleId);
-            userRoleMapper.insert(userRole);
-            log.info("分配角色给用户成功: userId={}, roleId={}, userRoleId={}", userId, roleId, userRole.getId());
-        }
+            return userRole;
+        }).toList();
+        userRoleMapper.insert(userRoles);
+        log.info("分配角色给用户成功: userId={}, roleIds={}", userId, distinctRoleIds);
 
-        // 3. 更新Redis中用户的角色和权限
-        permissionCheckService.updateUserRolesAndPermissions(userId);
+        // 5. 事务提交后异步更新Redis中用户的角色和权限
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(userId));
     }
 
     @Override
@@ -84,8 +93,8 @@ public class UserRoleServiceImpl implements UserRoleService {
         userRoleMapper.deleteById(userRole.getId());
         log.info("移除用户角色成功: userId={}, roleId={}", userId, roleId);
 
-        // 3. 更新Redis中用户的角色和权限
-        permissionCheckService.updateUserRolesAndPermissions(userId);
+        // 3. 事务提交后异步更新Redis中用户的角色和权限
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(userId));
     }
 
     @Override
@@ -102,8 +111,8 @@ public class UserRoleServiceImpl implements UserRoleService {
         int count = userRoleMapper.deleteByUserId(userId);
         log.info("移除用户所有角色成功: userId={}, count={}", userId, count);
 
-        // 3. 更新Redis中用户的角色和权限
-        permissionCheckService.updateUserRolesAndPermissions(userId);
+        // 3. 事务提交后异步更新Redis中用户的角色和权限
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(userId));
     }
 
     @Override
@@ -112,20 +121,9 @@ public class UserRoleServiceImpl implements UserRoleService {
     }
 
     @Override
-    public List<User> getUsersByRoleId(Long roleId) {
-        // 1. 查询该角色的所有用户关联
-        List<UserRole> userRoles = userRoleMapper.selectByRoleId(roleId);
-
-        // 2. 查询用户信息
-        List<User> users = new ArrayList<>();
-        for (UserRole userRole : userRoles) {
-            User user = userMapper.selectById(userRole.getUserId());
-            if (user != null) {
-                users.add(user);
-            }
-        }
-
-        return users;
+    public PageResponse<User> getUsersByRoleId(Long roleId, Integer pageNum, Integer pageSize) {
+        // 单次 JOIN 查询 + 分页，避免逐个查询用户
+        IPage<User> page = userMapper.selectUsersByRoleId(new Page<>(pageNum, pageSize), roleId);
+        return PageUtil.toPageResponse(page);
     }
 }
-
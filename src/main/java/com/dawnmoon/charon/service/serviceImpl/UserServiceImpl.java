@@ -1,12 +1,15 @@
 package com.dawnmoon.charon.service.serviceImpl;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.enums.CountMode;
+import com.dawnmoon.charon.common.search.KeywordSearch;
+import com.dawnmoon.charon.common.search.KeywordSearchResolver;
+import com.dawnmoon.charon.common.search.SearchTarget;
+import com.dawnmoon.charon.common.security.RbacGraph;
 import com.dawnmoon.charon.mapper.UserMapper;
-import com.dawnmoon.charon.mapper.UserRoleMapper;
 import com.dawnmoon.charon.model.entity.User;
 import com.dawnmoon.charon.model.response.PageResponse;
 import com.dawnmoon.charon.service.UserService;
+import com.dawnmoon.charon.service.TableStatsService;
 import com.dawnmoon.charon.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,14 +24,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
-    private final UserRoleMapper userRoleMapper;
+    private final RbacGraph rbacGraph;
+    private final TableStatsService tableStatsService;
+    private final KeywordSearchResolver keywordSearchResolver;
 
     @Override
     public User getByUsername(String username) {
         User user = userMapper.selectByUsername(username);
         if (user != null) {
-            // 加载用户角色
-            user.setRoles(userRoleMapper.selectRoleNamesByUserId(user.getId()));
+            // 加载用户角色（角色名称来自角色权限图，只查询 sys_user_role）
+            user.setRoles(rbacGraph.resolveUser(user.getId()).roles());
         }
         return user;
     }
@@ -37,8 +42,8 @@ public class UserServiceImpl implements UserService {
     public User getById(Long id) {
         User user = userMapper.selectById(id);
         if (user != null) {
-            // 加载用户角色
-            user.setRoles(userRoleMapper.selectRoleNamesByUserId(id));
+            // 加载用户角色（角色名称来自角色权限图，只查询 sys_user_role）
+            user.setRoles(rbacGraph.resolveUser(id).roles());
         }
         return user;
     }
@@ -55,6 +60,12 @@ public class UserServiceImpl implements UserService {
         userMapper.updateById(user);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean rehashPassword(Long id, String expectedPassword, String password) {
+        return userMapper.updatePasswordIfMatch(id, expectedPassword, password) > 0;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void delete(Long id) {
@@ -62,9 +73,11 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public PageResponse<User> list(Integer pageNum, Integer pageSize, String keyword) {
-        // 使用 MyBatis-Plus 分页插件（自动进行 count 与 limit）
-        IPage<User> page = userMapper.selectUsersByKeyword(new Page<>(pageNum, pageSize), keyword);
-        return PageUtil.toPageResponse(page);
+    public PageResponse<User> list(Integer pageNum, Integer pageSize, String keyword, String cursor, CountMode countMode) {
+        KeywordSearch search = keywordSearchResolver.resolve(SearchTarget.USER, keyword);
+        return PageUtil.query(pageNum, pageSize, cursor, countMode,
+                page -> userMapper.selectUsersByKeyword(page, search),
+                (createAt, id, limit) -> userMapper.selectUsersByKeywordAfter(search, createAt, id, limit),
+                exactCount -> tableStatsService.estimateTotal("sys_user", keyword, exactCount));
     }
 }
@@ -3,26 +3,68 @@ package com.dawnmoon.charon.util;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 /**
  * 加密工具类
- * 提供 BCrypt 和 ECC 加密功能
+ * 提供 ECC（ECIES）和混合加密功能；密码哈希使用 {@link com.dawnmoon.charon.common.security.PasswordHashService}
+ *
+ * <p>Cipher 实例按线程缓存复用，避免每次调用都查找 Provider 和创建 Cipher（小数据时这是主要开销）；
+ * 每次调用仍会重新 init，ECIES 每次加密使用新的临时密钥</p>
+ * <p>ECIES 适合短数据；大数据使用混合加密：随机生成 AES-256 数据密钥并用 ECIES 包装，
+ * 数据按 64KB 分块做 AES-GCM 加密，支持流式处理，内存占用与数据大小无关</p>
+ * <p>混合加密格式：版本(1) + 包装密钥长度(2) + 包装密钥 + nonce 前缀(8)，随后为若干块：
+ * 是否最后一块(1) + 密文长度(4) + 密文（含 16 字节 tag）。
+ * 每块的 nonce 为前缀 + 块序号，头部和“是否最后一块”作为附加认证数据，块被重排、删除或截断都会校验失败</p>
  */
 @Slf4j
 @Component
 public class CryptoUtil {
 
-    private static final BCryptPasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder();
+    /**
+     * 混合加密格式版本
+     */
+    private static final byte HYBRID_V1 = 1;
+
+    /**
+     * 混合加密的分块大小（明文）
+     */
+    private static final int HYBRID_CHUNK_SIZE = 64 * 1024;
+
+    private static final int GCM_TAG_BITS = 128;
+    private static final int GCM_TAG_BYTES = GCM_TAG_BITS / 8;
+    private static final int NONCE_PREFIX_BYTES = 8;
+    private static final int DATA_KEY_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 按线程复用的 Cipher（Cipher 不是线程安全的）
+     */
+    private static final ThreadLocal<Cipher> ECIES_CIPHER = ThreadLocal.withInitial(() -> newCipher("ECIES", "BC"));
+    private static final ThreadLocal<Cipher> AES_GCM_CIPHER = ThreadLocal.withInitial(() -> newCipher("AES/GCM/NoPadding", null));
 
     @Value("${app.crypto.ecc.public-key:}")
     private String eccPublicKeyStr;
@@ -59,50 +101,223 @@ public class CryptoUtil {
         }
     }
 
-    // ==================== BCrypt 加密 ====================
+    // ==================== ECC 加密 ====================
 
     /**
-     * BCrypt 加密
+     * ECC 加密
      */
-    public static String bcryptEncode(String password) {
-        return PASSWORD_ENCODER.encode(password);
+    public String eccEncrypt(String data) throws Exception {
+        byte[] encrypted = eccEncrypt(data.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encrypted);
     }
 
     /**
-     * BCrypt 验证
+     * ECC 解密
      */
-    public static boolean bcryptMatches(String rawPassword, String encodedPassword) {
-        return PASSWORD_ENCODER.matches(rawPassword, encodedPassword);
+    public String eccDecrypt(String cipherText) throws Exception {
+        byte[] decrypted = eccDecrypt(Base64.getDecoder().decode(cipherText));
+        return new String(decrypted, StandardCharsets.UTF_8);
     }
 
-    // ==================== ECC 加密 ====================
+    /**
+     * ECC 加密（字节数组）
+     */
+    public byte[] eccEncrypt(byte[] data) throws GeneralSecurityException {
+        return eciesCipher(Cipher.ENCRYPT_MODE).doFinal(data);
+    }
 
     /**
-     * ECC 加密
+     * ECC 解密（字节数组）
      */
-    public String eccEncrypt(String data) throws Exception {
-        if (eccPublicKey == null) {
-            throw new IllegalStateException("ECC 公钥未配置");
+    public byte[] eccDecrypt(byte[] cipherText) throws GeneralSecurityException {
+        return eciesCipher(Cipher.DECRYPT_MODE).doFinal(cipherText);
+    }
+
+    /**
+     * ECC 加密（ByteBuffer），读取 input 的剩余字节，返回已 flip 的结果
+     */
+    public ByteBuffer eccEncrypt(ByteBuffer input) throws GeneralSecurityException {
+        return doFinal(eciesCipher(Cipher.ENCRYPT_MODE), input);
+    }
+
+    /**
+     * ECC 解密（ByteBuffer），读取 input 的剩余字节，返回已 flip 的结果
+     */
+    public ByteBuffer eccDecrypt(ByteBuffer input) throws GeneralSecurityException {
+        return doFinal(eciesCipher(Cipher.DECRYPT_MODE), input);
+    }
+
+    // ==================== 混合加密（ECIES 包装数据密钥 + 分块 AES-GCM） ====================
+
+    /**
+     * 混合加密（字节数组）
+     */
+    public byte[] hybridEncrypt(byte[] data) throws GeneralSecurityException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + data.length / HYBRID_CHUNK_SIZE * 21 + 256);
+        try {
+            hybridEncrypt(new ByteArrayInputStream(data), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return out.toByteArray();
+    }
 
-        Cipher cipher = Cipher.getInstance("ECIES", "BC");
-        cipher.init(Cipher.ENCRYPT_MODE, eccPublicKey);
-        byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(encrypted);
+    /**
+     * 混合解密（字节数组）
+     */
+    public byte[] hybridDecrypt(byte[] cipherText) throws GeneralSecurityException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(cipherText.length);
+        try {
+            hybridDecrypt(new ByteArrayInputStream(cipherText), out);
+        } catch (EOFException e) {
+            throw new AEADBadTagException("密文不完整");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
     }
 
     /**
-     * ECC 解密
+     * 混合加密（流式），读取 in 直到结束，写入 out，不关闭两个流
      */
-    public String eccDecrypt(String cipherText) throws Exception {
-        if (eccPrivateKey == null) {
-            throw new IllegalStateException("ECC 私钥未配置");
+    public void hybridEncrypt(InputStream in, OutputStream out) throws GeneralSecurityException, IOException {
+        byte[] dataKey = new byte[DATA_KEY_BYTES];
+        RANDOM.nextBytes(dataKey);
+        try {
+            byte[] wrappedKey = eccEncrypt(dataKey);
+            byte[] noncePrefix = new byte[NONCE_PREFIX_BYTES];
+            RANDOM.nextBytes(noncePrefix);
+
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(wrappedKey.length + 11);
+            DataOutputStream header = new DataOutputStream(headerBytes);
+            header.writeByte(HYBRID_V1);
+            header.writeShort(wrappedKey.length);
+            header.write(wrappedKey);
+            header.write(noncePrefix);
+            byte[] aad = headerBytes.toByteArray();
+
+            DataOutputStream output = new DataOutputStream(out);
+            output.write(aad);
+
+            SecretKeySpec key = new SecretKeySpec(dataKey, "AES");
+            Cipher cipher = AES_GCM_CIPHER.get();
+            byte[] current = new byte[HYBRID_CHUNK_SIZE];
+            byte[] next = new byte[HYBRID_CHUNK_SIZE];
+            byte[] encrypted = new byte[HYBRID_CHUNK_SIZE + GCM_TAG_BYTES];
+            int length = in.readNBytes(current, 0, HYBRID_CHUNK_SIZE);
+            for (int counter = 0; ; counter++) {
+                // 预读下一块，以便标记最后一块
+                int nextLength = length == HYBRID_CHUNK_SIZE ? in.readNBytes(next, 0, HYBRID_CHUNK_SIZE) : 0;
+                boolean last = nextLength == 0;
+
+                initChunk(cipher, Cipher.ENCRYPT_MODE, key, noncePrefix, counter, aad, last);
+                int encryptedLength = cipher.doFinal(current, 0, length, encrypted, 0);
+                output.writeBoolean(last);
+                output.writeInt(encryptedLength);
+                output.write(encrypted, 0, encryptedLength);
+                if (last) {
+                    break;
+                }
+
+                byte[] swap = current;
+                current = next;
+                next = swap;
+                length = nextLength;
+            }
+            output.flush();
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
         }
+    }
 
-        Cipher cipher = Cipher.getInstance("ECIES", "BC");
-        cipher.init(Cipher.DECRYPT_MODE, eccPrivateKey);
-        byte[] decrypted = cipher.doFinal(Base64.getDecoder().decode(cipherText));
-        return new String(decrypted, StandardCharsets.UTF_8);
+    /**
+     * 混合解密（流式），读取 in 直到最后一块，写入 out，不关闭两个流
+     * 每块校验通过后才写出，校验失败时 out 中可能已有之前块的明文，调用方应丢弃
+     */
+    public void hybridDecrypt(InputStream in, OutputStream out) throws GeneralSecurityException, IOException {
+        DataInputStream input = new DataInputStream(in);
+        if (input.readByte() != HYBRID_V1) {
+            throw new GeneralSecurityException("不支持的混合加密格式");
+        }
+        int wrappedKeyLength = input.readUnsignedShort();
+        byte[] wrappedKey = input.readNBytes(wrappedKeyLength);
+        byte[] noncePrefix = input.readNBytes(NONCE_PREFIX_BYTES);
+        if (wrappedKey.length != wrappedKeyLength || noncePrefix.length != NONCE_PREFIX_BYTES) {
+            throw new EOFException();
+        }
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(wrappedKeyLength + 11);
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeByte(HYBRID_V1);
+        header.writeShort(wrappedKeyLength);
+        header.write(wrappedKey);
+        header.write(noncePrefix);
+        byte[] aad = headerBytes.toByteArray();
+
+        byte[] dataKey = eccDecrypt(wrappedKey);
+        try {
+            SecretKeySpec key = new SecretKeySpec(dataKey, "AES");
+            Cipher cipher = AES_GCM_CIPHER.get();
+            byte[] encrypted = new byte[HYBRID_CHUNK_SIZE + GCM_TAG_BYTES];
+            byte[] decrypted = new byte[HYBRID_CHUNK_SIZE];
+            for (int counter = 0; ; counter++) {
+                boolean last = input.readBoolean();
+                int encryptedLength = input.readInt();
+                if (encryptedLength < GCM_TAG_BYTES || encryptedLength > encrypted.length) {
+                    throw new AEADBadTagException("分块长度不正确: " + encryptedLength);
+                }
+                input.readFully(encrypted, 0, encryptedLength);
+
+                initChunk(cipher, Cipher.DECRYPT_MODE, key, noncePrefix, counter, aad, last);
+                int decryptedLength = cipher.doFinal(encrypted, 0, encryptedLength, decrypted, 0);
+                out.write(decrypted, 0, decryptedLength);
+                if (last) {
+                    break;
+                }
+            }
+            out.flush();
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    // ==================== Cipher 复用 ====================
+
+    private Cipher eciesCipher(int mode) throws GeneralSecurityException {
+        Key key = mode == Cipher.ENCRYPT_MODE ? eccPublicKey : eccPrivateKey;
+        if (key == null) {
+            throw new IllegalStateException(mode == Cipher.ENCRYPT_MODE ? "ECC 公钥未配置" : "ECC 私钥未配置");
+        }
+        Cipher cipher = ECIES_CIPHER.get();
+        cipher.init(mode, key, RANDOM);
+        return cipher;
+    }
+
+    private static void initChunk(Cipher cipher, int mode, SecretKeySpec key, byte[] noncePrefix, int counter,
+                                  byte[] aad, boolean last) throws GeneralSecurityException {
+        if (counter < 0) {
+            throw new GeneralSecurityException("分块数量超出上限");
+        }
+        byte[] nonce = Arrays.copyOf(noncePrefix, NONCE_PREFIX_BYTES + 4);
+        ByteBuffer.wrap(nonce, NONCE_PREFIX_BYTES, 4).putInt(counter);
+        cipher.init(mode, key, new GCMParameterSpec(GCM_TAG_BITS, nonce));
+        cipher.updateAAD(aad);
+        cipher.updateAAD(new byte[]{(byte) (last ? 1 : 0)});
+    }
+
+    private static ByteBuffer doFinal(Cipher cipher, ByteBuffer input) throws GeneralSecurityException {
+        ByteBuffer output = ByteBuffer.allocate(cipher.getOutputSize(input.remaining()));
+        cipher.doFinal(input, output);
+        output.flip();
+        return output;
+    }
+
+    private static Cipher newCipher(String transformation, String provider) {
+        try {
+            return provider == null ? Cipher.getInstance(transformation) : Cipher.getInstance(transformation, provider);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("创建 Cipher 失败: " + transformation, e);
+        }
     }
 
     // ==================== 密钥加载 ====================
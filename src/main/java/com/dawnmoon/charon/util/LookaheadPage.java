@@ -0,0 +1,31 @@
+package com.dawnmoon.charon.util;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 多查一条的分页参数
+ * 不执行 COUNT(*)，LIMIT 为 pageSize + 1，OFFSET 仍按 pageSize 计算，
+ * 多出的一条只用于判断是否有下一页
+ */
+public class LookaheadPage<T> extends Page<T> {
+
+    private final long pageSize;
+
+    public LookaheadPage(long current, long pageSize) {
+        super(current, pageSize + 1, false);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 实际每页大小
+     */
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public long offset() {
+        long current = getCurrent();
+        return current <= 1 ? 0L : (current - 1) * pageSize;
+    }
+}
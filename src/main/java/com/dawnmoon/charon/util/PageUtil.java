@@ -1,10 +1,19 @@
 package com.dawnmoon.charon.util;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.enums.CountMode;
+import com.dawnmoon.charon.common.enums.ErrorCode;
+import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.model.entity.BaseEntity;
 import com.dawnmoon.charon.model.response.PageResponse;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -12,8 +21,63 @@ import java.util.stream.Collectors;
  */
 public class PageUtil {
 
+    /**
+     * 游标中 create_at 与 id 的分隔符
+     */
+    private static final String CURSOR_SEPARATOR = "|";
+
+    /**
+     * 游标分页位置：按 (create_at DESC, id DESC) 排序时上一页最后一条记录
+     *
+     * @param createAt 创建时间
+     * @param id       主键ID
+     */
+    public record Cursor(LocalDateTime createAt, Long id) {
+    }
+
+    /**
+     * 游标分页查询：从 (createAt, id) 之后按 (create_at DESC, id DESC) 查询 limit 条
+     */
+    @FunctionalInterface
+    public interface CursorQuery<T> {
+        List<T> after(LocalDateTime createAt, Long id, int limit);
+    }
+
+    /**
+     * 支持游标和 countMode 的列表查询
+     * 携带 cursor 时按游标翻页；否则按页码分页，countMode 为 NONE / ESTIMATED 时多查一条代替 COUNT(*)，
+     * ESTIMATED 时总数由 estimateTotal 估算；页码分页的结果同样返回 nextCursor，客户端可以改用游标继续翻页
+     *
+     * @param pageQuery     页码分页查询，参数为 {@link Page} 或 {@link LookaheadPage}
+     * @param cursorQuery   游标分页查询
+     * @param estimateTotal 估算总数，参数为精确统计的回退方式
+     */
+    public static <T extends BaseEntity> PageResponse<T> query(Integer pageNum, Integer pageSize, String cursor, CountMode countMode,
+                                                            Function<Page<T>, IPage<T>> pageQuery,
+                                                            CursorQuery<T> cursorQuery,
+                                                            Function<Supplier<Long>, Long> estimateTotal) {
+        if (isCursorMode(cursor)) {
+            // 游标分页：按 (create_at, id) 定位，多查一条用于判断是否有下一页
+            Cursor position = decodeCursor(cursor);
+            return toCursorResponse(cursorQuery.after(position.createAt(), position.id(), pageSize + 1), pageSize);
+        }
+
+        if (countMode == CountMode.NONE || countMode == CountMode.ESTIMATED) {
+            // 跳过 COUNT(*)：多查一条判断是否有下一页，总数按需估算
+            IPage<T> page = pageQuery.apply(new LookaheadPage<>(pageNum, pageSize));
+            Long total = countMode == CountMode.ESTIMATED
+                    ? estimateTotal.apply(() -> pageQuery.apply(new Page<>(1, 1)).getTotal())
+                    : null;
+            return withNextCursor(toLookaheadResponse(page, total));
+        }
+
+        // 使用 MyBatis-Plus 分页插件（自动进行 count 与 limit）
+        return withNextCursor(toPageResponse(pageQuery.apply(new Page<>(pageNum, pageSize))));
+    }
+
     /**
      * 将 IPage 转换为 PageResponse
+     * 不生成 nextCursor：不支持游标的接口不应返回游标，支持游标的接口使用 {@link #query}
      */
     public static <T> PageResponse<T> toPageResponse(IPage<T> page) {
         PageResponse<T> response = new PageResponse<>();
@@ -22,6 +86,33 @@ public class PageUtil {
         response.setPageSize((int) page.getSize());
         response.setPages((int) page.getPages());
         response.setList(page.getRecords());
+        response.setHasNext(page.getCurrent() < page.getPages());
+        response.setEstimated(false);
+        return response;
+    }
+
+    /**
+     * 将多查一条的分页结果转换为 PageResponse
+     *
+     * @param page  使用 {@link LookaheadPage} 查询的分页结果
+     * @param total 总记录数（估算值），不统计时为 null
+     */
+    public static <T> PageResponse<T> toLookaheadResponse(IPage<T> page, Long total) {
+        int pageSize = (int) (page instanceof LookaheadPage<T> lookahead ? lookahead.getPageSize() : page.getSize());
+        List<T> rows = page.getRecords();
+        boolean hasNext = rows.size() > pageSize;
+        List<T> records = hasNext ? rows.subList(0, pageSize) : rows;
+
+        PageResponse<T> response = new PageResponse<>();
+        response.setPageNum((int) page.getCurrent());
+        response.setPageSize(pageSize);
+        response.setList(records);
+        response.setHasNext(hasNext);
+        if (total != null) {
+            response.setTotal(total);
+            response.setPages((int) ((total + pageSize - 1) / pageSize));
+            response.setEstimated(true);
+        }
         return response;
     }
 
@@ -39,9 +130,100 @@ public class PageUtil {
                 .map(converter)
                 .collect(Collectors.toList());
         response.setList(convertedList);
+        response.setHasNext(page.getCurrent() < page.getPages());
+        response.setEstimated(false);
 
         return response;
     }
-}
 
+    /**
+     * 对 PageResponse 的列表进行转换，保留分页信息
+     */
+    public static <S, T> PageResponse<T> convert(PageResponse<S> page, Function<S, T> converter) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setTotal(page.getTotal());
+        response.setPageNum(page.getPageNum());
+        response.setPageSize(page.getPageSize());
+        response.setPages(page.getPages());
+        response.setList(page.getList().stream()
+                .map(converter)
+                .collect(Collectors.toList()));
+        response.setNextCursor(page.getNextCursor());
+        response.setHasNext(page.getHasNext());
+        response.setEstimated(page.getEstimated());
+        return response;
+    }
+
+    /**
+     * 将游标查询结果转换为 PageResponse
+     *
+     * @param rows     查询结果，需按 pageSize + 1 条查询，多出的一条用于判断是否有下一页
+     * @param pageSize 每页大小
+     */
+    public static <T extends BaseEntity> PageResponse<T> toCursorResponse(List<T> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> records = hasNext ? rows.subList(0, pageSize) : rows;
+
+        PageResponse<T> response = new PageResponse<>();
+        response.setPageSize(pageSize);
+        response.setList(records);
+        response.setHasNext(hasNext);
+        if (hasNext) {
+            response.setNextCursor(nextCursor(records));
+        }
+        return response;
+    }
+
+    /**
+     * 为支持游标的列表接口的页码分页结果补充下一页游标，客户端可以从第一页开始改用游标翻页
+     */
+    private static <T extends BaseEntity> PageResponse<T> withNextCursor(PageResponse<T> response) {
+        if (Boolean.TRUE.equals(response.getHasNext())) {
+            response.setNextCursor(nextCursor(response.getList()));
+        }
+        return response;
+    }
+
+    /**
+     * 是否使用游标分页
+     */
+    public static boolean isCursorMode(String cursor) {
+        return cursor != null && !cursor.isBlank();
+    }
+
+    /**
+     * 编码游标（不透明的 Base64 URL 安全字符串）
+     */
+    public static String encodeCursor(LocalDateTime createAt, Long id) {
+        String raw = createAt + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
+    /**
+     * 解码游标
+     *
+     * @throws BusinessException 游标格式错误
+     */
+    public static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(CURSOR_SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "分页游标无效");
+        }
+    }
+
+    /**
+     * 根据本页最后一条记录生成下一页游标
+     */
+    private static String nextCursor(List<?> records) {
+        if (records.isEmpty() || !(records.get(records.size() - 1) instanceof BaseEntity last)) {
+            return null;
+        }
+        if (last.getCreateAt() == null || last.getId() == null) {
+            return null;
+        }
+        return encodeCursor(last.getCreateAt(), last.getId());
+    }
+}
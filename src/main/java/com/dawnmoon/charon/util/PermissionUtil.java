@@ -3,19 +3,26 @@ package com.dawnmoon.charon.util;
 /**
  * 权限工具类
  * 提供权限编码相关的工具方法
+ *
+ * <p>格式校验和拆分由 {@link #indexOfSeparator(String, boolean)} 单次遍历完成，不编译正则、不分配对象</p>
  */
 public class PermissionUtil {
 
     /**
      * 权限编码分隔符
      */
-    private static final String SEPARATOR = ":";
+    private static final char SEPARATOR = ':';
 
     /**
-     * 权限编码格式正则表达式
-     * 格式：模块:操作，如 USER:CREATE, ROLE:UPDATE
+     * 操作通配符，如 USER:* 表示 USER 模块的所有操作
      */
-    private static final String PERMISSION_CODE_PATTERN = "^[A-Z_]+:[A-Z_]+$";
+    public static final String WILDCARD = "*";
+
+    /**
+     * 权限编码格式（含模块通配编码），供请求参数的 {@code @Pattern} 校验使用，
+     * 与 {@link #indexOfSeparator(String, boolean)} 允许通配时接受的格式一致
+     */
+    public static final String PERMISSION_CODE_REGEX = "^[A-Z_]+:([A-Z_]+|\\*)$";
 
     /**
      * 生成权限编码
@@ -38,10 +45,8 @@ public class PermissionUtil {
      * @return [0]:模块, [1]:操作
      */
     public static String[] parsePermissionCode(String permissionCode) {
-        if (!isValidPermissionCode(permissionCode)) {
-            throw new IllegalArgumentException("权限编码格式不正确: " + permissionCode);
-        }
-        return permissionCode.split(SEPARATOR);
+        int separator = requireSeparator(permissionCode);
+        return new String[]{permissionCode.substring(0, separator), permissionCode.substring(separator + 1)};
     }
 
     /**
@@ -51,8 +56,7 @@ public class PermissionUtil {
      * @return 模块名称
      */
     public static String getModule(String permissionCode) {
-        String[] parts = parsePermissionCode(permissionCode);
-        return parts[0];
+        return permissionCode.substring(0, requireSeparator(permissionCode));
     }
 
     /**
@@ -62,8 +66,7 @@ public class PermissionUtil {
      * @return 操作名称
      */
     public static String getAction(String permissionCode) {
-        String[] parts = parsePermissionCode(permissionCode);
-        return parts[1];
+        return permissionCode.substring(requireSeparator(permissionCode) + 1);
     }
 
     /**
@@ -73,7 +76,51 @@ public class PermissionUtil {
      * @return true-格式正确, false-格式错误
      */
     public static boolean isValidPermissionCode(String permissionCode) {
-        return permissionCode != null && permissionCode.matches(PERMISSION_CODE_PATTERN);
+        return indexOfSeparator(permissionCode, false) > 0;
+    }
+
+    /**
+     * 判断是否为模块通配编码，如 USER:*
+     *
+     * @param permissionCode 权限编码
+     * @return true-是, false-否
+     */
+    public static boolean isWildcard(String permissionCode) {
+        return indexOfSeparator(permissionCode, true) > 0 && permissionCode.endsWith(WILDCARD);
+    }
+
+    /**
+     * 单次遍历校验权限编码格式并返回分隔符下标
+     * 格式：模块:操作，模块和操作均为非空的大写字母和下划线，如 USER:CREATE；
+     * 允许通配时操作部分可以是单独的 *，如 USER:*
+     *
+     * @param permissionCode 权限编码
+     * @param allowWildcard  是否允许操作通配符
+     * @return 分隔符下标，格式不正确时返回 -1
+     */
+    public static int indexOfSeparator(String permissionCode, boolean allowWildcard) {
+        if (permissionCode == null) {
+            return -1;
+        }
+        int length = permissionCode.length();
+        int separator = -1;
+        for (int i = 0; i < length; i++) {
+            char c = permissionCode.charAt(i);
+            if (c == SEPARATOR) {
+                if (separator >= 0) {
+                    return -1;
+                }
+                separator = i;
+            } else if (c == '*') {
+                // 通配符只能单独作为操作部分
+                if (!allowWildcard || separator < 0 || i != separator + 1 || i != length - 1) {
+                    return -1;
+                }
+            } else if ((c < 'A' || c > 'Z') && c != '_') {
+                return -1;
+            }
+        }
+        return separator > 0 && separator < length - 1 ? separator : -1;
     }
 
     /**
@@ -84,10 +131,9 @@ public class PermissionUtil {
      * @return true-属于, false-不属于
      */
     public static boolean belongsToModule(String permissionCode, String module) {
-        if (!isValidPermissionCode(permissionCode)) {
-            return false;
-        }
-        return getModule(permissionCode).equals(module.toUpperCase());
+        int separator = indexOfSeparator(permissionCode, false);
+        return separator > 0 && separator == module.length()
+                && permissionCode.regionMatches(true, 0, module, 0, separator);
     }
 
     /**
@@ -98,10 +144,17 @@ public class PermissionUtil {
      * @return true-是, false-否
      */
     public static boolean isAction(String permissionCode, String action) {
-        if (!isValidPermissionCode(permissionCode)) {
-            return false;
+        int separator = indexOfSeparator(permissionCode, false);
+        return separator > 0 && permissionCode.length() - separator - 1 == action.length()
+                && permissionCode.regionMatches(true, separator + 1, action, 0, action.length());
+    }
+
+    private static int requireSeparator(String permissionCode) {
+        int separator = indexOfSeparator(permissionCode, false);
+        if (separator < 0) {
+            throw new IllegalArgumentException("权限编码格式不正确: " + permissionCode);
         }
-        return getAction(permissionCode).equals(action.toUpperCase());
+        return separator;
     }
 }
 
@@ -13,10 +13,18 @@ public class SecurityUtil {
      * 获取当前登录用户 ID
      */
     public static Long getCurrentUserId() {
+        UserPrincipal userPrincipal = getCurrentPrincipal();
+        return userPrincipal != null ? userPrincipal.getUserId() : null;
+    }
+
+    /**
+     * 获取当前登录用户的认证主体（由认证过滤器放入 SecurityContext）
+     */
+    public static UserPrincipal getCurrentPrincipal() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
-                return ((UserPrincipal) authentication.getPrincipal()).getUserId();
+                return (UserPrincipal) authentication.getPrincipal();
             }
         } catch (Exception e) {
             // 如果获取失败，返回 null
@@ -7,6 +7,11 @@ CREATE DATABASE IF NOT EXISTS springboot_template DEFAULT CHARACTER SET utf8mb4
 
 USE springboot_template;
 
+-- 关键词搜索（app.search.mode=FULLTEXT）使用 ngram 全文索引，分词长度由服务端参数 ngram_token_size 决定（默认 2）
+-- ngram 会丢弃包含停用词的分词（默认停用词表含 a、i、in 等，ab、li 这类分词都查不到），
+-- 因此建索引前关闭停用词；停用词表在建索引时绑定，已有的库按 upgrade_keyword_search.sql 重建全文索引
+SET SESSION innodb_ft_enable_stopword = OFF;
+
 -- ==========================================
 -- 用户表
 -- ==========================================
@@ -28,8 +33,12 @@ CREATE TABLE `sys_user` (
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_username` (`username`),
     KEY `idx_status` (`status`),
-    KEY `idx_create_at` (`create_at`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_phone` (`phone`),
+    KEY `idx_email` (`email`),
+    KEY `idx_create_at` (`create_at`, `id`),
+    KEY `idx_update_at` (`update_at`),
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_keyword` (`username`, `real_name`, `phone`, `email`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
 -- ==========================================
@@ -49,7 +58,10 @@ CREATE TABLE `sys_role` (
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_role_name` (`role_name`),
     KEY `idx_status` (`status`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_create_at` (`create_at`, `id`),
+    KEY `idx_update_at` (`update_at`),
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_keyword` (`role_name`, `description`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='角色表';
 
 -- ==========================================
@@ -89,8 +101,10 @@ CREATE TABLE `sys_permission`
     `is_deleted`      TINYINT      NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_permission_code` (`permission_code`),
-    KEY `idx_create_at` (`create_at`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_create_at` (`create_at`, `id`),
+    KEY `idx_update_at` (`update_at`),
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_keyword` (`permission_code`, `permission_name`, `description`) WITH PARSER ngram
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci COMMENT ='权限表';
@@ -0,0 +1,47 @@
+-- ==========================================
+-- SpringBoot 应用模板 - MySQL 升级脚本：关键词搜索与分页索引
+-- 适用于按旧版 schema.sql 建立的数据库，新建的库直接执行 schema.sql 即可
+-- ==========================================
+
+USE springboot_template;
+
+-- 停用词表在建全文索引时绑定，关闭后建立的索引不会丢弃包含停用词的分词
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- ==========================================
+-- 用户表
+-- ==========================================
+ALTER TABLE `sys_user`
+    DROP INDEX `idx_create_at`,
+    ADD KEY `idx_create_at` (`create_at`, `id`),
+    ADD KEY `idx_phone` (`phone`),
+    ADD KEY `idx_email` (`email`),
+    ADD KEY `idx_update_at` (`update_at`);
+
+-- 每条语句只能新增一个全文索引；已按旧停用词设置建过 ft_keyword 的库先执行：
+-- ALTER TABLE `sys_user` DROP INDEX `ft_keyword`;
+ALTER TABLE `sys_user`
+    ADD FULLTEXT KEY `ft_keyword` (`username`, `real_name`, `phone`, `email`) WITH PARSER ngram;
+
+-- ==========================================
+-- 角色表
+-- ==========================================
+ALTER TABLE `sys_role`
+    ADD KEY `idx_create_at` (`create_at`, `id`),
+    ADD KEY `idx_update_at` (`update_at`);
+
+-- ALTER TABLE `sys_role` DROP INDEX `ft_keyword`;
+ALTER TABLE `sys_role`
+    ADD FULLTEXT KEY `ft_keyword` (`role_name`, `description`) WITH PARSER ngram;
+
+-- ==========================================
+-- 权限表
+-- ==========================================
+ALTER TABLE `sys_permission`
+    DROP INDEX `idx_create_at`,
+    ADD KEY `idx_create_at` (`create_at`, `id`),
+    ADD KEY `idx_update_at` (`update_at`);
+
+-- ALTER TABLE `sys_permission` DROP INDEX `ft_keyword`;
+ALTER TABLE `sys_permission`
+    ADD FULLTEXT KEY `ft_keyword` (`permission_code`, `permission_name`, `description`) WITH PARSER ngram;
@@ -7,6 +7,9 @@ CREATE DATABASE springboot_template ENCODING 'UTF8';
 
 -- \c springboot_template;
 
+-- 关键词搜索使用 pg_trgm 三元组 GIN 索引，LIKE '%关键词%' 可直接走索引
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- ==========================================
 -- 用户表
 -- ==========================================
@@ -45,8 +48,13 @@ COMMENT ON COLUMN sys_user.update_by IS '更新人';
 COMMENT ON COLUMN sys_user.is_deleted IS '逻辑删除：0-未删除，1-已删除';
 
 CREATE INDEX idx_user_status ON sys_user(status);
-CREATE INDEX idx_user_create_at ON sys_user(create_at);
+CREATE INDEX idx_user_create_at ON sys_user(create_at, id);
+CREATE INDEX idx_user_update_at ON sys_user(update_at);
 CREATE INDEX idx_user_is_deleted ON sys_user(is_deleted);
+-- 手机号、邮箱的精确 / 前缀匹配（pattern_ops 使 LIKE '前缀%' 不受排序规则影响）
+CREATE INDEX idx_user_phone ON sys_user(phone varchar_pattern_ops);
+CREATE INDEX idx_user_email ON sys_user(email varchar_pattern_ops);
+CREATE INDEX idx_user_keyword_trgm ON sys_user USING GIN (username gin_trgm_ops, real_name gin_trgm_ops, phone gin_trgm_ops, email gin_trgm_ops);
 
 -- ==========================================
 -- 角色表
@@ -78,7 +86,10 @@ COMMENT ON COLUMN sys_role.update_by IS '更新人';
 COMMENT ON COLUMN sys_role.is_deleted IS '逻辑删除：0-未删除，1-已删除';
 
 CREATE INDEX idx_role_status ON sys_role(status);
+CREATE INDEX idx_role_create_at ON sys_role(create_at, id);
+CREATE INDEX idx_role_update_at ON sys_role(update_at);
 CREATE INDEX idx_role_is_deleted ON sys_role(is_deleted);
+CREATE INDEX idx_role_keyword_trgm ON sys_role USING GIN (role_name gin_trgm_ops, description gin_trgm_ops);
 
 -- ==========================================
 -- 用户角色关联表
@@ -141,8 +152,10 @@ COMMENT ON COLUMN sys_permission.create_by IS '创建人';
 COMMENT ON COLUMN sys_permission.update_by IS '更新人';
 COMMENT ON COLUMN sys_permission.is_deleted IS '逻辑删除：0-未删除，1-已删除';
 
-CREATE INDEX idx_permission_create_at ON sys_permission (create_at);
+CREATE INDEX idx_permission_create_at ON sys_permission (create_at, id);
+CREATE INDEX idx_permission_update_at ON sys_permission (update_at);
 CREATE INDEX idx_permission_is_deleted ON sys_permission (is_deleted);
+CREATE INDEX idx_permission_keyword_trgm ON sys_permission USING GIN (permission_code gin_trgm_ops, permission_name gin_trgm_ops, description gin_trgm_ops);
 
 -- ==========================================
 -- 角色权限关联表
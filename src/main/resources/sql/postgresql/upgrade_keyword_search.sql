@@ -0,0 +1,34 @@
+-- ==========================================
+-- SpringBoot 应用模板 - PostgreSQL 升级脚本：关键词搜索与分页索引
+-- 适用于按旧版 schema.sql 建立的数据库，新建的库直接执行 schema.sql 即可
+-- CONCURRENTLY 建索引不锁写，不能放在事务中执行
+-- ==========================================
+
+-- \c springboot_template;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ==========================================
+-- 用户表
+-- ==========================================
+DROP INDEX CONCURRENTLY IF EXISTS idx_user_create_at;
+CREATE INDEX CONCURRENTLY idx_user_create_at ON sys_user(create_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_update_at ON sys_user(update_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_phone ON sys_user(phone varchar_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_email ON sys_user(email varchar_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_keyword_trgm ON sys_user USING GIN (username gin_trgm_ops, real_name gin_trgm_ops, phone gin_trgm_ops, email gin_trgm_ops);
+
+-- ==========================================
+-- 角色表
+-- ==========================================
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_role_create_at ON sys_role(create_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_role_update_at ON sys_role(update_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_role_keyword_trgm ON sys_role USING GIN (role_name gin_trgm_ops, description gin_trgm_ops);
+
+-- ==========================================
+-- 权限表
+-- ==========================================
+DROP INDEX CONCURRENTLY IF EXISTS idx_permission_create_at;
+CREATE INDEX CONCURRENTLY idx_permission_create_at ON sys_permission (create_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_permission_update_at ON sys_permission (update_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_permission_keyword_trgm ON sys_permission USING GIN (permission_code gin_trgm_ops, permission_name gin_trgm_ops, description gin_trgm_ops);
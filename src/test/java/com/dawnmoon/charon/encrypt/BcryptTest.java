@@ -1,23 +1,28 @@
 package com.dawnmoon.charon.encrypt;
 
-import com.dawnmoon.charon.util.CryptoUtil;
+import com.dawnmoon.charon.common.security.PasswordHashService;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.*;
+
 public class BcryptTest {
 
     @Test
     public void genBcryptResult() {
+        PasswordHashService passwordHashService = new PasswordHashService("bcrypt", 10, 0, 10, 14, 19456, 2, 1);
         String rawPassword1 = "qut@123456";
         String rawPassword2 = "qut@123456";
         String rawPassword3 = "qut@1234567";
-        String bcryptResult1 = CryptoUtil.bcryptEncode(rawPassword1);
-        String bcryptResult2 = CryptoUtil.bcryptEncode(rawPassword2);
-        String bcryptResult3 = CryptoUtil.bcryptEncode(rawPassword3);
+        String bcryptResult1 = passwordHashService.encode(rawPassword1);
+        String bcryptResult2 = passwordHashService.encode(rawPassword2);
+        String bcryptResult3 = passwordHashService.encode(rawPassword3);
         System.out.println("rawPassword1=" + rawPassword1 + "\nrawPassword2=" + rawPassword2 + "\nrawPassword3=" + rawPassword3);
         System.out.println("bcryptResult1=" + bcryptResult1 + "\nbcryptResult2=" + bcryptResult2 + "\nbcryptResult3=" + bcryptResult3);
-        System.out.println("pw1 = pw2? " + CryptoUtil.bcryptMatches(rawPassword1, bcryptResult1));
-        System.out.println("pw1 = pw3? " + CryptoUtil.bcryptMatches(rawPassword1, bcryptResult3));
+        System.out.println("pw1 = pw2? " + passwordHashService.matches(rawPassword1, bcryptResult2));
+        System.out.println("pw1 = pw3? " + passwordHashService.matches(rawPassword1, bcryptResult3));
+
+        assertNotEquals(bcryptResult1, bcryptResult2);
+        assertTrue(passwordHashService.matches(rawPassword1, bcryptResult2));
+        assertFalse(passwordHashService.matches(rawPassword1, bcryptResult3));
     }
 }
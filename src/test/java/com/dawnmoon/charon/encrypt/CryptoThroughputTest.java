@@ -0,0 +1,81 @@
+package com.dawnmoon.charon.encrypt;
+
+import com.dawnmoon.charon.util.CryptoUtil;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ECC / 混合加密的正确性测试
+ * 吞吐量对比见 JMH 基准 CryptoBenchmark（mvn -Pbenchmark verify）
+ */
+public class CryptoThroughputTest {
+
+    private static CryptoUtil cryptoUtil;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EC", "BC");
+        keyGen.initialize(256);
+        KeyPair keyPair = keyGen.generateKeyPair();
+
+        cryptoUtil = new CryptoUtil();
+        ReflectionTestUtils.setField(cryptoUtil, "eccPublicKeyStr",
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(cryptoUtil, "eccPrivateKeyStr",
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        cryptoUtil.init();
+    }
+
+    @Test
+    void roundTrips() throws Exception {
+        assertEquals("你好, charon", cryptoUtil.eccDecrypt(cryptoUtil.eccEncrypt("你好, charon")));
+
+        ByteBuffer decrypted = cryptoUtil.eccDecrypt(cryptoUtil.eccEncrypt(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), decrypted);
+
+        // 覆盖空数据和分块边界
+        for (int size : new int[]{0, 1, 64 * 1024 - 1, 64 * 1024, 64 * 1024 + 1, 300_000}) {
+            byte[] data = randomBytes(size);
+            byte[] encrypted = cryptoUtil.hybridEncrypt(data);
+            assertArrayEquals(data, cryptoUtil.hybridDecrypt(encrypted));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            cryptoUtil.hybridDecrypt(new ByteArrayInputStream(encrypted), out);
+            assertArrayEquals(data, out.toByteArray());
+        }
+    }
+
+    @Test
+    void rejectsTamperedOrTruncatedHybridData() throws Exception {
+        byte[] encrypted = cryptoUtil.hybridEncrypt(randomBytes(200_000));
+
+        byte[] tampered = encrypted.clone();
+        tampered[tampered.length - 20] ^= 1;
+        assertThrows(Exception.class, () -> cryptoUtil.hybridDecrypt(tampered));
+
+        // 去掉最后一块：前面各块都未标记为最后一块，必须报错而不是返回部分明文
+        byte[] truncated = Arrays.copyOf(encrypted, encrypted.length - 1000);
+        assertThrows(Exception.class, () -> cryptoUtil.hybridDecrypt(truncated));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+}
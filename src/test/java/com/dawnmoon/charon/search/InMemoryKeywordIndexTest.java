@@ -0,0 +1,54 @@
+package com.dawnmoon.charon.search;
+
+import com.dawnmoon.charon.common.search.InMemoryKeywordIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryKeywordIndexTest {
+
+    @Test
+    void candidatesIntersectBigrams() {
+        InMemoryKeywordIndex index = InMemoryKeywordIndex.builder(LocalDateTime.now())
+                .add(1L, "superadmin", "超级管理员", "13800138001", "superadmin@example.com")
+                .add(2L, "admin", "管理员", "13800138002", "admin@example.com")
+                .add(3L, "user", "普通用户", null, "user@example.com")
+                .build();
+
+        assertArrayEquals(new long[]{1L, 2L}, index.candidates("Admin", 100));
+        assertArrayEquals(new long[]{1L}, index.candidates("超级", 100));
+        assertArrayEquals(new long[0], index.candidates("不存在", 100));
+
+        // 单字符无法切分二元组，候选数超过上限时索引无区分度，均回退到 LIKE
+        assertNull(index.candidates("a", 100));
+        assertNull(index.candidates("example", 2));
+
+        // LIKE 通配符按字面切分会漏掉匹配的行（如 ad_in 匹配 admin），同样回退到 LIKE
+        assertNull(index.candidates("ad_in", 100));
+        assertNull(index.candidates("adm%", 100));
+    }
+
+    @Test
+    void mergeAddsUpdatedRows() {
+        LocalDateTime built = LocalDateTime.now().minusMinutes(5);
+        InMemoryKeywordIndex index = InMemoryKeywordIndex.builder(built)
+                .add(1L, "admin")
+                .add(3L, "user")
+                .build();
+        LocalDateTime refreshed = LocalDateTime.now();
+        InMemoryKeywordIndex changes = InMemoryKeywordIndex.builder(refreshed)
+                .add(2L, "administrator")
+                .add(3L, "admin_user")
+                .build();
+
+        InMemoryKeywordIndex merged = index.merge(changes);
+        assertEquals(refreshed, merged.getIndexedSince());
+        assertArrayEquals(new long[]{1L, 2L, 3L}, merged.candidates("admin", 100));
+        assertArrayEquals(new long[]{2L}, merged.candidates("rator", 100));
+        // 旧倒排项保留，只多出候选
+        assertArrayEquals(new long[]{3L}, merged.candidates("user", 100));
+        assertArrayEquals(new long[]{1L}, index.candidates("admin", 100));
+    }
+}
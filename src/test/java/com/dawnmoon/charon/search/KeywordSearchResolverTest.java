@@ -0,0 +1,74 @@
+package com.dawnmoon.charon.search;
+
+import com.dawnmoon.charon.common.search.KeywordSearch;
+import com.dawnmoon.charon.common.search.KeywordSearchResolver;
+import com.dawnmoon.charon.common.search.SearchMode;
+import com.dawnmoon.charon.common.search.SearchTarget;
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.mapper.RoleMapper;
+import com.dawnmoon.charon.mapper.UserMapper;
+import com.dawnmoon.charon.model.entity.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关键词搜索解析测试：全文索引可能漏查的关键词回退为 LIKE，倒排索引按更新时间合并增量
+ */
+public class KeywordSearchResolverTest {
+
+    private static final String[] STOPWORDS = {"a", "i", "in", "about"};
+
+    private final UserMapper userMapper = Mockito.mock(UserMapper.class);
+
+    private KeywordSearchResolver resolver(SearchMode mode, String... stopwords) {
+        return new KeywordSearchResolver(userMapper, Mockito.mock(RoleMapper.class), Mockito.mock(PermissionMapper.class),
+                mode, false, stopwords, 3600, 60, 5000);
+    }
+
+    @Test
+    void fulltextFallsBackToLikeWhenIndexMayMiss() {
+        KeywordSearchResolver resolver = resolver(SearchMode.FULLTEXT, STOPWORDS);
+        KeywordSearch search = resolver.resolve(SearchTarget.USER, "超级管理");
+        assertTrue(search.isFulltext());
+        assertEquals("\"超级管理\"", search.getBooleanQuery());
+        assertTrue(resolver.resolve(SearchTarget.USER, "USER").isFulltext());
+
+        // 分词包含停用词（ab 含 a，li 含 i）、包含空白、通配符或双引号时回退为 LIKE
+        for (String keyword : List.of("ab", "li", "Admin", "x", "su per", "ad_in", "adm%", "\"root\"")) {
+            assertFalse(resolver.resolve(SearchTarget.USER, keyword).isFulltext(), keyword);
+        }
+
+        // 全文索引关闭停用词建立时不再回退
+        assertTrue(resolver(SearchMode.FULLTEXT).resolve(SearchTarget.USER, "ab").isFulltext());
+    }
+
+    @Test
+    void refreshMergesRowsUpdatedSinceLastRead() {
+        User admin = user(1L, "admin");
+        Mockito.when(userMapper.selectSearchDocuments()).thenReturn(List.of(admin));
+        KeywordSearchResolver resolver = resolver(SearchMode.MEMORY);
+        resolver.rebuild();
+        KeywordSearch search = resolver.resolve(SearchTarget.USER, "admin");
+        LocalDateTime indexedSince = search.getIndexedSince();
+        assertEquals(List.of(1L), List.copyOf(search.getCandidateIds()));
+
+        Mockito.when(userMapper.selectSearchDocumentsUpdatedSince(indexedSince)).thenReturn(List.of(user(2L, "sysadmin")));
+        resolver.refresh();
+        search = resolver.resolve(SearchTarget.USER, "admin");
+        assertEquals(List.of(1L, 2L), List.copyOf(search.getCandidateIds()));
+        assertFalse(search.getIndexedSince().isBefore(indexedSince));
+        Mockito.verify(userMapper, Mockito.times(1)).selectSearchDocuments();
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+}
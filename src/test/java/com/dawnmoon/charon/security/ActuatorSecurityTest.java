@@ -0,0 +1,112 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.JwtAuthenticationFilter;
+import com.dawnmoon.charon.common.security.RestAccessDeniedHandler;
+import com.dawnmoon.charon.common.security.RestAuthenticationEntryPoint;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.TokenLocalCache;
+import com.dawnmoon.charon.common.security.TokenStore;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.config.SecurityConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 管理端点访问控制测试：权限同步端点只允许管理员角色访问
+ */
+@SpringJUnitWebConfig(ActuatorSecurityTest.Config.class)
+public class ActuatorSecurityTest {
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfig.class, JwtAuthenticationFilter.class,
+            RestAuthenticationEntryPoint.class, RestAccessDeniedHandler.class})
+    static class Config {
+
+        @Bean
+        TokenStore tokenStore() {
+            return Mockito.mock(TokenStore.class);
+        }
+
+        @Bean
+        TokenLocalCache tokenLocalCache() {
+            TokenLocalCache cache = Mockito.mock(TokenLocalCache.class);
+            Mockito.when(cache.get("user-token")).thenAnswer(invocation -> principal("USER"));
+            Mockito.when(cache.get("admin-token")).thenAnswer(invocation -> principal("ADMIN"));
+            return cache;
+        }
+
+        @Bean
+        RoleGrantStore roleGrantStore() {
+            return Mockito.mock(RoleGrantStore.class);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        PermissionSyncStub permissionSyncStub() {
+            return new PermissionSyncStub();
+        }
+    }
+
+    /**
+     * 代替 actuator 端点的同路径接口
+     */
+    @RestController
+    static class PermissionSyncStub {
+
+        @PostMapping("/actuator/permissionsync")
+        public String replay() {
+            return "replayed";
+        }
+    }
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+    }
+
+    private static UserPrincipal principal(String role) {
+        long now = System.currentTimeMillis();
+        return new UserPrincipal(1L, role.toLowerCase(), List.of(role), List.of(), now, now + 86_400_000L);
+    }
+
+    @Test
+    void replayRequiresAdminRole() throws Exception {
+        mockMvc.perform(post("/actuator/permissionsync"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/actuator/permissionsync").header("Authorization", "Bearer user-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/actuator/permissionsync").header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,94 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationBus;
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationListener;
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationMessage;
+import com.dawnmoon.charon.common.security.PermissionRegistry;
+import com.dawnmoon.charon.common.security.RbacGraph;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.TokenLocalCache;
+import com.dawnmoon.charon.config.RedisConfig;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 认证缓存失效总线测试：监听器按顺序在分发线程上执行，不阻塞订阅线程
+ */
+public class AuthCacheInvalidationBusTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listenersRunInOrderOffSubscriberThread() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        RbacGraph graph = Mockito.mock(RbacGraph.class);
+        Mockito.doAnswer(invocation -> {
+            // 模拟数据库刷新变慢
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            calls.add("graph@" + Thread.currentThread().getName());
+            throw new IllegalStateException("数据库不可用");
+        }).when(graph).onInvalidation(Mockito.any());
+        PermissionRegistry registry = recording(PermissionRegistry.class, "registry", calls, null);
+        RoleGrantStore grants = recording(RoleGrantStore.class, "grants", calls, null);
+        TokenLocalCache tokens = recording(TokenLocalCache.class, "tokens", calls, done);
+
+        // 注册顺序与 @Order 相反
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setDependencyComparator(AnnotationAwareOrderComparator.INSTANCE);
+        beanFactory.registerSingleton("tokens", tokens);
+        beanFactory.registerSingleton("grants", grants);
+        beanFactory.registerSingleton("registry", registry);
+        beanFactory.registerSingleton("graph", graph);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisConfig().redisTemplate(new LettuceConnectionFactory());
+        redisTemplate.afterPropertiesSet();
+        AuthCacheInvalidationBus bus = new AuthCacheInvalidationBus(redisTemplate,
+                Mockito.mock(RedisMessageListenerContainer.class),
+                beanFactory.getBeanProvider(AuthCacheInvalidationListener.class));
+
+        AuthCacheInvalidationMessage message = new AuthCacheInvalidationMessage("other-node");
+        message.getRoleIds().add(1L);
+        try {
+            // 订阅线程只投递消息，不等待数据库刷新
+            byte[] body = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(message);
+            bus.onMessage(new DefaultMessage(new byte[0], body), null);
+            assertTrue(calls.isEmpty());
+            release.countDown();
+
+            // 角色权限图刷新失败不影响后续缓存失效
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("graph@auth-cache-invalidation-listener", "registry", "grants", "tokens"), calls);
+        } finally {
+            bus.destroy();
+        }
+    }
+
+    private static <T extends AuthCacheInvalidationListener> T recording(Class<T> type, String name,
+                                                                          List<String> calls, CountDownLatch done) {
+        T listener = Mockito.mock(type);
+        Mockito.doAnswer(invocation -> {
+            calls.add(name);
+            if (done != null) {
+                done.countDown();
+            }
+            return null;
+        }).when(listener).onInvalidation(Mockito.any());
+        return listener;
+    }
+}
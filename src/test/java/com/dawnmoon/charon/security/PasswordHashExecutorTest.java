@@ -0,0 +1,102 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.exception.TooManyRequestsException;
+import com.dawnmoon.charon.common.security.PasswordHashExecutor;
+import com.dawnmoon.charon.common.security.PasswordHashService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 密码哈希执行器的准入控制和超时测试
+ */
+public class PasswordHashExecutorTest {
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashExecutor hashExecutor = new PasswordHashExecutor(
+                new PasswordHashService("bcrypt", 10, 0, 10, 10, 19456, 2, 1), registry, 1, 1, 10_000);
+        String encoded = hashExecutor.encode("123456");
+
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return hashExecutor.matches("123456", encoded);
+            }));
+        }
+        start.countDown();
+
+        int matched = 0;
+        int rejected = 0;
+        for (Future<Boolean> future : futures) {
+            try {
+                assertTrue(future.get());
+                matched++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(TooManyRequestsException.class, e.getCause());
+                rejected++;
+            }
+        }
+        pool.shutdown();
+        hashExecutor.destroy();
+
+        // 1 个线程 + 1 个队列位置，其余调用立即被拒绝
+        assertTrue(matched >= 1);
+        assertTrue(rejected >= 1);
+        assertEquals(rejected, registry.get("password.hash.rejected").counter().count());
+        assertEquals(matched, registry.get("password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void timeoutFreesQueueSlotButNotRunningThread() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashService service = Mockito.mock(PasswordHashService.class);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(service.matches(Mockito.anyString(), Mockito.anyString())).thenAnswer(invocation -> {
+            running.countDown();
+            // 模拟不响应中断的哈希计算
+            while (!release.await(10, TimeUnit.SECONDS)) {
+                Thread.onSpinWait();
+            }
+            return true;
+        });
+        PasswordHashExecutor hashExecutor = new PasswordHashExecutor(service, registry, 1, 1, 200);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> first = pool.submit(() -> hashExecutor.matches("123456", "hash"));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            // 排队的任务超时后移出队列，正在计算的任务仍占用线程
+            assertThrows(TooManyRequestsException.class, () -> hashExecutor.matches("123456", "hash"));
+            assertEquals(0, registry.get("password.hash.queue.depth").gauge().value());
+            assertEquals(1, registry.get("password.hash.active").gauge().value());
+
+            ExecutionException timedOut = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TooManyRequestsException.class, timedOut.getCause());
+            assertEquals(1, registry.get("password.hash.active").gauge().value());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+            hashExecutor.destroy();
+        }
+        Mockito.verify(service, Mockito.times(1)).matches("123456", "hash");
+    }
+}
@@ -0,0 +1,50 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.PasswordHashService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashServiceTest {
+
+    private static PasswordHashService bcrypt(int strength) {
+        return new PasswordHashService("bcrypt", strength, 0, 4, 4, 19456, 2, 1);
+    }
+
+    @Test
+    void legacyHashIsAcceptedAndUpgraded() {
+        PasswordHashService service = bcrypt(5);
+        String legacy = new BCryptPasswordEncoder(4).encode("qut@123456");
+
+        assertTrue(service.matches("qut@123456", legacy));
+        assertFalse(service.matches("qut@1234567", legacy));
+        assertTrue(service.needsRehash(legacy));
+
+        String rehashed = service.encode("qut@123456");
+        assertTrue(rehashed.startsWith("{bcrypt}$2a$05$"));
+        assertFalse(service.needsRehash(rehashed));
+    }
+
+    @Test
+    void strengthAndAlgorithmChangesTriggerRehash() {
+        String weak = bcrypt(4).encode("qut@123456");
+        assertTrue(bcrypt(5).needsRehash(weak));
+        assertFalse(bcrypt(4).needsRehash(weak));
+
+        PasswordHashService argon2 = new PasswordHashService("argon2", 4, 0, 4, 4, 4096, 2, 1);
+        assertTrue(argon2.needsRehash(weak));
+        assertTrue(argon2.matches("qut@123456", weak));
+
+        String hash = argon2.encode("qut@123456");
+        assertTrue(hash.startsWith("{argon2}$argon2id$"));
+        assertTrue(argon2.matches("qut@123456", hash));
+        assertFalse(argon2.needsRehash(hash));
+    }
+
+    @Test
+    void calibratesWithinRange() {
+        PasswordHashService service = new PasswordHashService("bcrypt", 0, 50, 4, 8, 19456, 2, 1);
+        assertTrue(service.getBcryptStrength() >= 4 && service.getBcryptStrength() <= 8);
+    }
+}
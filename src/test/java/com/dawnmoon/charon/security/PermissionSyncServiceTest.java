@@ -0,0 +1,96 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationBus;
+import com.dawnmoon.charon.common.security.PermissionSyncService;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.TokenLocalCache;
+import com.dawnmoon.charon.common.security.TokenStore;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.mapper.UserRoleMapper;
+import com.dawnmoon.charon.model.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限同步服务测试：同一用户的并发同步按读取顺序写回
+ */
+public class PermissionSyncServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentSyncsOfSameUserWriteLatestRoles() throws Exception {
+        UserRoleMapper userRoleMapper = Mockito.mock(UserRoleMapper.class);
+        RoleGrantStore roleGrantStore = Mockito.mock(RoleGrantStore.class);
+        TokenStore tokenStore = Mockito.mock(TokenStore.class);
+
+        Mockito.when(tokenStore.getSessions(Mockito.anyList())).thenReturn(Map.of(1L, List.of("token")));
+        Mockito.when(tokenStore.getPrincipals(Mockito.anyList()))
+                .thenAnswer(invocation -> {
+                    List<UserPrincipal> principals = new ArrayList<>();
+                    principals.add(new UserPrincipal(1L, "user", Map.of(), 0L, 0L));
+                    return principals;
+                });
+        Mockito.when(roleGrantStore.versionsOf(Mockito.anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Long> versions = new LinkedHashMap<>();
+            ((Collection<Long>) invocation.getArgument(0)).forEach(roleId -> versions.put(roleId, 1L));
+            return versions;
+        });
+        List<Map<Long, Long>> written = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            ((Map<String, UserPrincipal>) invocation.getArgument(0))
+                    .values().forEach(principal -> written.add(principal.getRoleVersions()));
+            return null;
+        }).when(tokenStore).rewritePrincipals(Mockito.anyMap());
+
+        // 第一次同步读到旧的角色关联后变慢，第二次同步读到新的角色关联
+        CountDownLatch firstRead = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        Mockito.when(userRoleMapper.selectByUserIds(Mockito.anyCollection())).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                firstRead.countDown();
+                Thread.sleep(300);
+                return List.of(userRole(1L, 10L));
+            }
+            return List.of(userRole(1L, 20L));
+        });
+
+        PermissionSyncService service = new PermissionSyncService(userRoleMapper, roleGrantStore, tokenStore,
+                null, Mockito.mock(TokenLocalCache.class), Mockito.mock(AuthCacheInvalidationBus.class), 2, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> service.syncUser(1L));
+            assertTrue(firstRead.await(5, TimeUnit.SECONDS));
+            Future<?> second = pool.submit(() -> service.syncUser(1L));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+            service.destroy();
+        }
+
+        assertEquals(2, written.size());
+        assertEquals(Map.of(20L, 1L), written.get(written.size() - 1));
+    }
+
+    private static UserRole userRole(Long userId, Long roleId) {
+        UserRole userRole = new UserRole();
+        userRole.setUserId(userId);
+        userRole.setRoleId(roleId);
+        return userRole;
+    }
+}
@@ -0,0 +1,92 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.PermissionMask;
+import com.dawnmoon.charon.common.security.PermissionRegistry;
+import com.dawnmoon.charon.common.security.PermissionTrie;
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.util.PermissionUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限编码解析、格式校验和通配匹配测试
+ */
+public class PermissionTrieTest {
+
+    @Test
+    void parserMatchesFormat() {
+        for (String valid : List.of("USER:CREATE", "A:B", "USER_ROLE:BATCH_ASSIGN")) {
+            assertTrue(PermissionUtil.isValidPermissionCode(valid), valid);
+        }
+        for (String invalid : new String[]{null, "", ":", "USER", "USER:", ":CREATE", "user:create",
+                "USER:CREATE:X", "USER1:CREATE", "USER:*", "USER :CREATE"}) {
+            assertFalse(PermissionUtil.isValidPermissionCode(invalid), String.valueOf(invalid));
+        }
+
+        assertTrue(PermissionUtil.isWildcard("USER:*"));
+        assertFalse(PermissionUtil.isWildcard("USER:A*"));
+        assertFalse(PermissionUtil.isWildcard("*:*"));
+
+        assertArrayEquals(new String[]{"USER", "CREATE"}, PermissionUtil.parsePermissionCode("USER:CREATE"));
+        assertEquals("USER", PermissionUtil.getModule("USER:CREATE"));
+        assertEquals("CREATE", PermissionUtil.getAction("USER:CREATE"));
+        assertThrows(IllegalArgumentException.class, () -> PermissionUtil.getAction("USER:*"));
+        assertTrue(PermissionUtil.belongsToModule("USER:CREATE", "user"));
+        assertFalse(PermissionUtil.belongsToModule("USER:CREATE", "USE"));
+        assertTrue(PermissionUtil.isAction("USER:CREATE", "create"));
+        assertFalse(PermissionUtil.isAction("USER:CREATE", "CREAT"));
+    }
+
+    @Test
+    void requestPatternMatchesParser() {
+        Pattern pattern = Pattern.compile(PermissionUtil.PERMISSION_CODE_REGEX);
+        for (String code : List.of("USER:CREATE", "USER_ROLE:BATCH_ASSIGN", "USER:*", "A:B", "USER2:X",
+                "A:B:C", "USER::*", "USER:", ":CREATE", "user:create", "*:*", "USER:A*", "USER :CREATE")) {
+            assertEquals(PermissionUtil.indexOfSeparator(code, true) > 0, pattern.matcher(code).matches(), code);
+        }
+        assertFalse(pattern.matcher("USER2:X").matches());
+        assertFalse(pattern.matcher("A:B:C").matches());
+        assertFalse(pattern.matcher("USER::*").matches());
+    }
+
+    @Test
+    void trieMatchesExactAndWildcardCodes() {
+        PermissionTrie trie = new PermissionTrie(List.of("USER:VIEW", "ROLE:*", "USER:VIEW", "USER_ROLE:VIEW"));
+        assertEquals(3, trie.size());
+        assertEquals(0, trie.indexOf("USER:VIEW"));
+        assertEquals(-1, trie.indexOf("USER"));
+
+        assertTrue(trie.implies("USER:VIEW"));
+        assertFalse(trie.implies("USER:UPDATE"));
+        assertTrue(trie.implies("ROLE:DELETE"));
+        assertTrue(trie.implies("ROLE:*"));
+        // 模块名是另一个模块的前缀时不能误匹配
+        assertFalse(trie.implies("ROLES:VIEW"));
+        assertTrue(trie.implies("USER_ROLE:VIEW"));
+
+        List<Integer> matched = new ArrayList<>();
+        new PermissionTrie(List.of("USER:VIEW", "USER:CREATE", "ROLE:VIEW", "USER:*"))
+                .forEachMatch("USER:*", matched::add);
+        assertEquals(3, matched.size());
+    }
+
+    @Test
+    void grantedWildcardExpandsToModuleBits() {
+        PermissionMapper permissionMapper = Mockito.mock(PermissionMapper.class);
+        Mockito.when(permissionMapper.selectAllPermissionCodes())
+                .thenReturn(List.of("USER:VIEW", "USER:CREATE", "ROLE:VIEW"));
+        PermissionRegistry registry = new PermissionRegistry(permissionMapper);
+        registry.refresh();
+
+        PermissionMask granted = registry.compileGranted(List.of("USER:*"));
+        assertTrue(granted.isComparableWith(registry.compile(new String[]{"USER:CREATE"})));
+        assertTrue(granted.containsAll(registry.compile(new String[]{"USER:VIEW", "USER:CREATE"})));
+        assertFalse(granted.intersects(registry.compile(new String[]{"ROLE:VIEW"})));
+    }
+}
@@ -0,0 +1,50 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.AuthCacheInvalidationBus;
+import com.dawnmoon.charon.common.security.RbacGraph;
+import com.dawnmoon.charon.mapper.PermissionMapper;
+import com.dawnmoon.charon.mapper.RoleMapper;
+import com.dawnmoon.charon.mapper.RolePermissionMapper;
+import com.dawnmoon.charon.mapper.UserRoleMapper;
+import com.dawnmoon.charon.model.entity.Role;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 角色权限图按需加载测试
+ */
+public class RbacGraphTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void absentRoleIsLookedUpOnce() {
+        RoleMapper roleMapper = Mockito.mock(RoleMapper.class);
+        RbacGraph graph = new RbacGraph(roleMapper, Mockito.mock(PermissionMapper.class),
+                Mockito.mock(RolePermissionMapper.class), Mockito.mock(UserRoleMapper.class),
+                Mockito.mock(AuthCacheInvalidationBus.class), Mockito.mock(ObjectProvider.class));
+        Role admin = new Role();
+        admin.setId(1L);
+        admin.setRoleName("ADMIN");
+        Mockito.when(roleMapper.selectAllRoles()).thenReturn(List.of(admin));
+        graph.reload();
+
+        // 角色 2 已删除：第一次展开时查询数据库确认，之后不再查询
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("ADMIN"), graph.resolve(List.of(1L, 2L)).roles());
+        }
+        Mockito.verify(roleMapper, Mockito.times(1)).selectBatchIds(Mockito.anyCollection());
+
+        // 角色变更刷新后重新确认
+        Role created = new Role();
+        created.setId(2L);
+        created.setRoleName("USER");
+        Mockito.when(roleMapper.selectBatchIds(Mockito.anyCollection())).thenReturn(List.of(created));
+        graph.refreshRoles(List.of(2L));
+        assertEquals(List.of("ADMIN", "USER"), graph.resolve(List.of(1L, 2L)).roles());
+    }
+}
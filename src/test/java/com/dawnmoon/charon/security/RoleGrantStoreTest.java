@@ -0,0 +1,154 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.RbacGraph;
+import com.dawnmoon.charon.common.security.RoleGrant;
+import com.dawnmoon.charon.common.security.RoleGrantStore;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.config.RedisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 角色权限集发布的版本顺序测试
+ * 需要本地 Redis（localhost:6379），不可用时跳过
+ */
+public class RoleGrantStoreTest {
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private RbacGraph rbacGraph;
+    private RoleGrantStore store;
+    private long roleId;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        boolean available;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            available = "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "本地 Redis 不可用");
+
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        rbacGraph = Mockito.mock(RbacGraph.class);
+        store = new RoleGrantStore(rbacGraph, redisTemplate, new SimpleMeterRegistry(), 100, 300);
+        roleId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redisTemplate != null) {
+            redisTemplate.delete(List.of("role_grant:" + roleId, "role_grant_version:" + roleId));
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void olderPublishDoesNotOverwriteNewer() throws Exception {
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(rbacGraph.resolveRole(roleId))
+                .thenAnswer(invocation -> {
+                    // 第一次发布取得版本号后阻塞，让第二次发布先写入
+                    resolving.countDown();
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                    return new RbacGraph.Grants(List.of("ROLE"), List.of("OLD:VIEW"));
+                })
+                .thenReturn(new RbacGraph.Grants(List.of("ROLE"), List.of("NEW:VIEW")));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<RoleGrant> first = pool.submit(() -> store.publish(roleId));
+            assertTrue(resolving.await(10, TimeUnit.SECONDS));
+
+            RoleGrant second = store.publish(roleId);
+            assertEquals(2L, second.getVersion());
+            release.countDown();
+
+            RoleGrant late = first.get(10, TimeUnit.SECONDS);
+            assertEquals(2L, late.getVersion());
+            assertEquals(List.of("NEW:VIEW"), late.getPermissions());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RoleGrant stored = (RoleGrant) redisTemplate.opsForValue().get("role_grant:" + roleId);
+        assertNotNull(stored);
+        assertEquals(2L, stored.getVersion());
+        assertEquals(List.of("NEW:VIEW"), stored.getPermissions());
+    }
+
+    @Test
+    void hydrateRestoresFromDatabaseWhenRedisIsBehindToken() {
+        Mockito.when(rbacGraph.resolveRole(roleId))
+                .thenReturn(new RbacGraph.Grants(List.of("ROLE"), List.of("USER:VIEW")));
+        // Redis 中停留在版本 1（数据丢失），计数器和 Token 记录的是版本 3
+        redisTemplate.opsForValue().set("role_grant:" + roleId, new RoleGrant(roleId, "ROLE", 1L, List.of("OLD:VIEW")));
+        redisTemplate.opsForValue().set("role_grant_version:" + roleId, 3L);
+
+        Map<Long, Long> versions = new HashMap<>();
+        versions.put(roleId, 3L);
+        UserPrincipal principal = new UserPrincipal();
+        principal.setUserId(1L);
+        principal.setRoleVersions(versions);
+
+        store.hydrate(principal);
+        assertEquals(List.of("USER:VIEW"), principal.getPermissions());
+        // 从数据库补写，不递增版本
+        RoleGrant stored = (RoleGrant) redisTemplate.opsForValue().get("role_grant:" + roleId);
+        assertNotNull(stored);
+        assertEquals(3L, stored.getVersion());
+        assertEquals(3L, ((Number) redisTemplate.opsForValue().get("role_grant_version:" + roleId)).longValue());
+
+        // 收敛后不再重复补写
+        UserPrincipal next = new UserPrincipal();
+        next.setUserId(1L);
+        next.setRoleVersions(versions);
+        store.hydrate(next);
+        store.hydrate(next);
+        assertEquals(List.of("USER:VIEW"), next.getPermissions());
+        Mockito.verify(rbacGraph, Mockito.times(1)).refreshRoles(List.of(roleId));
+    }
+
+    @Test
+    void missingGrantIsRestoredAtCurrentVersion() {
+        // Redis 中的角色权限集丢失，计数器停留在版本 2
+        redisTemplate.opsForValue().set("role_grant_version:" + roleId, 2L);
+        Mockito.when(rbacGraph.resolveRole(roleId))
+                .thenReturn(new RbacGraph.Grants(List.of("ROLE"), List.of("OLD:VIEW")))
+                .thenReturn(new RbacGraph.Grants(List.of("ROLE"), List.of("NEW:VIEW")));
+
+        // 非提交变更的节点补写时不递增版本，提交变更的节点随后发布的更高版本可以覆盖
+        assertEquals(Map.of(roleId, 2L), store.versionsOf(List.of(roleId)));
+        assertEquals(3L, store.publish(roleId).getVersion());
+
+        RoleGrant stored = (RoleGrant) redisTemplate.opsForValue().get("role_grant:" + roleId);
+        assertNotNull(stored);
+        assertEquals(3L, stored.getVersion());
+        assertEquals(List.of("NEW:VIEW"), stored.getPermissions());
+    }
+}
@@ -0,0 +1,34 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.TokenLocalCache;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenLocalCacheTest {
+
+    @Test
+    void invalidateByTokenAndUser() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TokenLocalCache cache = new TokenLocalCache(registry, 100, 60);
+
+        cache.put("t1", new UserPrincipal(1L, "a", List.of(), List.of(), 0L, 0L));
+        cache.put("t2", new UserPrincipal(1L, "a", List.of(), List.of(), 0L, 0L));
+        cache.put("t3", new UserPrincipal(2L, "b", List.of(), List.of(), 0L, 0L));
+
+        cache.invalidate("t1");
+        assertNull(cache.get("t1"));
+        assertNotNull(cache.get("t2"));
+
+        cache.invalidateUser(1L);
+        assertNull(cache.get("t2"));
+        assertNotNull(cache.get("t3"));
+
+        // 命中/未命中计数已注册到 actuator 指标
+        assertNotNull(registry.find("cache.gets").tag("cache", "token_local_cache").tag("result", "hit").functionCounter());
+    }
+}
@@ -0,0 +1,176 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.TokenStore;
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.config.RedisConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * TokenStore 原子登录 / 退出的并发测试及多设备会话测试
+ * 需要本地 Redis（localhost:6379），不可用时跳过
+ */
+public class TokenStoreConcurrencyTest {
+
+    private static final String TOKEN_PREFIX = "test_token:";
+
+    private LettuceConnectionFactory connectionFactory;
+    private TokenStore tokenStore;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        boolean available;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            available = "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "本地 Redis 不可用");
+
+        tokenStore = tokenStore(1);
+    }
+
+    private TokenStore tokenStore(int maxDevices) {
+        return new TokenStore(new StringRedisTemplate(connectionFactory),
+                new RedisConfig().principalRedisTemplate(connectionFactory, true), TOKEN_PREFIX, maxDevices);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void parallelLoginsLeaveSingleToken() throws Exception {
+        long userId = randomUserId();
+        int threads = 16;
+        int loginsPerThread = 50;
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < loginsPerThread; i++) {
+                    String token = UUID.randomUUID().toString().replace("-", "");
+                    issued.add(token);
+                    tokenStore.login(token, principal(userId), 60);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // UserId 映射指向最后一次登录，签发过的 Token 中只有它仍然存在
+        String current = tokenStore.getToken(userId);
+        assertTrue(issued.contains(current));
+        List<UserPrincipal> principals = tokenStore.getPrincipals(List.copyOf(issued));
+        assertEquals(1, principals.stream().filter(Objects::nonNull).count());
+        assertNotNull(tokenStore.getPrincipal(current));
+
+        assertEquals(List.of(current), tokenStore.forceLogout(userId));
+        assertNull(tokenStore.getToken(userId));
+        assertNull(tokenStore.getPrincipal(current));
+    }
+
+    @Test
+    void logoutOfKickedTokenKeepsNewerLogin() {
+        long userId = randomUserId();
+        tokenStore.login("old", principal(userId), 60);
+        assertEquals(List.of("old"), tokenStore.login("new", principal(userId), 60));
+
+        // 旧设备退出不影响新设备的映射
+        assertFalse(tokenStore.logout("old", userId));
+        assertEquals("new", tokenStore.getToken(userId));
+
+        assertTrue(tokenStore.logout("new", userId));
+        assertNull(tokenStore.getToken(userId));
+        assertTrue(tokenStore.forceLogout(userId).isEmpty());
+    }
+
+    @Test
+    void multiDeviceEvictsLeastRecentlyRefreshedSession() throws Exception {
+        TokenStore store = tokenStore(2);
+        long userId = randomUserId();
+        assertTrue(store.login("phone", principal(userId), 60).isEmpty());
+        Thread.sleep(5);
+        assertTrue(store.login("laptop", principal(userId), 60).isEmpty());
+        Thread.sleep(5);
+        // 续期后 phone 成为最近活跃的会话，第三台设备登录时淘汰 laptop
+        store.refresh("phone", store.getPrincipal("phone"), 120);
+        assertEquals(List.of("laptop"), store.login("tablet", principal(userId), 60));
+        assertNotNull(store.getPrincipal("phone"));
+        assertNull(store.getPrincipal("laptop"));
+
+        // 退出最近登录的设备后，UserId 映射改为指向剩余的会话
+        assertTrue(store.logout("tablet", userId));
+        assertEquals("phone", store.getToken(userId));
+        assertEquals(Map.of(userId, List.of("phone")), store.getSessions(List.of(userId)));
+
+        store.login("tablet", principal(userId), 60);
+        assertEquals(Set.of("phone", "tablet"), Set.copyOf(store.forceLogout(userId)));
+        assertNull(store.getPrincipal("phone"));
+        assertTrue(store.getSessions(List.of(userId)).isEmpty());
+    }
+
+    @Test
+    void refreshRecordsNewExpireAtUnlessRewritten() {
+        long userId = randomUserId();
+        tokenStore.login("web", principal(userId), 60);
+
+        UserPrincipal loaded = tokenStore.getPrincipal("web");
+        tokenStore.refresh("web", loaded, 120);
+        UserPrincipal refreshed = tokenStore.getPrincipal("web");
+        assertEquals(loaded.getExpireAt(), refreshed.getExpireAt());
+        assertTrue(refreshed.getExpireAt() > System.currentTimeMillis() + 60_000);
+        assertTrue(tokenStore.getExpire("web") > 60);
+
+        // 读取后被权限同步改写：只续期，不覆盖改写后的用户信息
+        UserPrincipal stale = tokenStore.getPrincipal("web");
+        UserPrincipal rewritten = tokenStore.getPrincipal("web");
+        rewritten.setRoleVersions(Map.of(7L, 3L));
+        tokenStore.rewritePrincipals(Map.of("web", rewritten));
+        tokenStore.refresh("web", stale, 300);
+        assertEquals(Map.of(7L, 3L), tokenStore.getPrincipal("web").getRoleVersions());
+        assertTrue(tokenStore.getExpire("web") > 120);
+
+        tokenStore.forceLogout(userId);
+    }
+
+    private static long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+    }
+
+    private static UserPrincipal principal(long userId) {
+        long now = System.currentTimeMillis();
+        return new UserPrincipal(userId, "concurrency", Map.of(), now, now + 60_000);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dawnmoon.charon.security;
+
+import com.dawnmoon.charon.common.security.UserPrincipal;
+import com.dawnmoon.charon.common.security.UserPrincipalCodec;
+import com.dawnmoon.charon.common.security.UserPrincipalRedisSerializer;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserPrincipalCodecTest {
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        return new GenericJackson2JsonRedisSerializer(objectMapper());
+    }
+
+    private static ObjectMapper objectMapper() {
+        // 与 RedisConfig 中的配置一致
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        return mapper;
+    }
+
+    /**
+     * 旧版本写入的 UserPrincipal：直接包含角色名称和权限列表，没有角色版本
+     */
+    private abstract static class LegacyUserPrincipal {
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        private List<String> roles;
+
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        private List<String> permissions;
+    }
+
+    @Test
+    void roundTripIsSmallerThanJson() {
+        Map<Long, Long> roleVersions = new LinkedHashMap<>();
+        roleVersions.put(1L, 3L);
+        roleVersions.put(200L, 1L);
+        UserPrincipal principal = new UserPrincipal(123456L, "管理员admin", roleVersions, 1700000000000L, 1700086400000L);
+
+        byte[] binary = UserPrincipalCodec.encode(principal);
+        UserPrincipal decoded = UserPrincipalCodec.decode(binary);
+        assertEquals(principal, decoded);
+        assertEquals(List.of(1L, 200L), List.copyOf(decoded.getRoleVersions().keySet()));
+
+        byte[] json = jsonSerializer().serialize(principal);
+        assertTrue(binary.length * 3 < json.length, "binary=" + binary.length + ", json=" + json.length);
+    }
+
+    @Test
+    void readsLegacyJson() {
+        UserPrincipalRedisSerializer serializer = new UserPrincipalRedisSerializer(jsonSerializer(), true);
+        ObjectMapper legacyMapper = objectMapper()
+                .addMixIn(UserPrincipal.class, LegacyUserPrincipal.class)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        byte[] legacy = new GenericJackson2JsonRedisSerializer(legacyMapper).serialize(
+                new UserPrincipal(1L, "admin", List.of("ADMIN"), List.of("USER:CREATE"), 1L, 2L));
+        assertTrue(new String(legacy, StandardCharsets.UTF_8).contains("USER:CREATE"));
+
+        UserPrincipal principal = serializer.deserialize(legacy);
+        assertEquals(1L, principal.getUserId());
+        assertEquals(List.of("USER:CREATE"), principal.getPermissions());
+        assertNull(principal.getRoleVersions());
+
+        // 旧格式原样保留角色和权限，重新写入后仍可读取
+        UserPrincipal reread = serializer.deserialize(serializer.serialize(principal));
+        assertEquals(List.of("ADMIN"), reread.getRoles());
+        assertEquals(List.of("USER:CREATE"), reread.getPermissions());
+    }
+}
@@ -0,0 +1,107 @@
+package com.dawnmoon.charon.util;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dawnmoon.charon.common.enums.CountMode;
+import com.dawnmoon.charon.common.exception.BusinessException;
+import com.dawnmoon.charon.model.entity.Role;
+import com.dawnmoon.charon.model.response.PageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageUtilTest {
+
+    @Test
+    void cursorRoundTrip() {
+        LocalDateTime createAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = PageUtil.encodeCursor(createAt, 42L);
+
+        PageUtil.Cursor decoded = PageUtil.decodeCursor(cursor);
+        assertEquals(createAt, decoded.createAt());
+        assertEquals(42L, decoded.id());
+
+        assertThrows(BusinessException.class, () -> PageUtil.decodeCursor("not-a-cursor"));
+    }
+
+    @Test
+    void cursorResponseUsesExtraRowForNextPage() {
+        List<Role> rows = new ArrayList<>();
+        for (long i = 3; i >= 1; i--) {
+            Role role = new Role();
+            role.setId(i);
+            role.setCreateAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+            rows.add(role);
+        }
+
+        PageResponse<Role> page = PageUtil.toCursorResponse(rows, 2);
+        assertEquals(2, page.getList().size());
+        assertEquals(2L, PageUtil.decodeCursor(page.getNextCursor()).id());
+
+        PageResponse<Role> last = PageUtil.toCursorResponse(rows.subList(2, 3), 2);
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void pageResponseHasNoCursor() {
+        Page<Role> page = new Page<>(1, 1, 2);
+        page.setRecords(List.of(role(1L)));
+
+        PageResponse<Role> response = PageUtil.toPageResponse(page);
+        assertTrue(response.getHasNext());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void queryDispatchesOnCursorAndCountMode() {
+        List<Role> rows = List.of(role(3L), role(2L), role(1L));
+        List<String> calls = new ArrayList<>();
+        Function<Page<Role>, IPage<Role>> pageQuery = page -> {
+            calls.add(page.getClass().getSimpleName() + ":" + page.getSize());
+            page.setTotal(rows.size());
+            page.setRecords(rows.subList(0, (int) Math.min(page.getSize(), rows.size())));
+            return page;
+        };
+        PageUtil.CursorQuery<Role> cursorQuery = (createAt, id, limit) -> {
+            calls.add("cursor:" + id + ":" + limit);
+            return rows.subList(2, 3);
+        };
+
+        // 页码分页：精确统计，同样返回下一页游标
+        PageResponse<Role> exact = PageUtil.query(1, 2, null, CountMode.EXACT, pageQuery, cursorQuery, exactCount -> 99L);
+        assertEquals(3L, exact.getTotal());
+        assertEquals(2L, PageUtil.decodeCursor(exact.getNextCursor()).id());
+
+        // 估算总数：多查一条判断下一页，估算值来自回调
+        PageResponse<Role> estimated = PageUtil.query(1, 2, null, CountMode.ESTIMATED, pageQuery, cursorQuery, exactCount -> 99L);
+        assertEquals(2, estimated.getList().size());
+        assertTrue(estimated.getHasNext());
+        assertEquals(99L, estimated.getTotal());
+        assertTrue(estimated.getEstimated());
+
+        PageResponse<Role> none = PageUtil.query(1, 2, null, CountMode.NONE, pageQuery, cursorQuery, exactCount -> {
+            throw new AssertionError("NONE 不统计总数");
+        });
+        assertNull(none.getTotal());
+
+        // 游标分页忽略页码和 countMode
+        PageResponse<Role> next = PageUtil.query(1, 2, exact.getNextCursor(), CountMode.EXACT, pageQuery, cursorQuery, exactCount -> 99L);
+        assertEquals(1, next.getList().size());
+        assertFalse(next.getHasNext());
+        assertNull(next.getNextCursor());
+
+        assertEquals(List.of("Page:2", "LookaheadPage:3", "LookaheadPage:3", "cursor:2:3"), calls);
+    }
+
+    private static Role role(Long id) {
+        Role role = new Role();
+        role.setId(id);
+        role.setCreateAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        return role;
+    }
+}